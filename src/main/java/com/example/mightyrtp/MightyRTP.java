@@ -6,11 +6,21 @@ import com.example.mightyrtp.commands.ReloadCommand;
 import com.example.mightyrtp.commands.UpdateCommand;
 import com.example.mightyrtp.commands.RTPCenterCommand;
 import com.example.mightyrtp.commands.RTPSetCommand;
+import com.example.mightyrtp.commands.RTPDebugCommand;
 import com.example.mightyrtp.managers.ConfigManager;
 import com.example.mightyrtp.managers.MessageManager;
 import com.example.mightyrtp.managers.CooldownManager;
 import com.example.mightyrtp.managers.CentersManager;
 import com.example.mightyrtp.managers.SpotsManager;
+import com.example.mightyrtp.managers.LocationPoolManager;
+import com.example.mightyrtp.managers.RejectionCacheManager;
+import com.example.mightyrtp.managers.BiomeFilterManager;
+import com.example.mightyrtp.managers.LoadedChunkManager;
+import com.example.mightyrtp.managers.InFlightSearchManager;
+import com.example.mightyrtp.managers.TraceManager;
+import com.example.mightyrtp.managers.WorldBorderManager;
+import com.example.mightyrtp.managers.WorldStatsManager;
+import com.example.mightyrtp.utils.TeleportUtils;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -35,6 +45,15 @@ public class MightyRTP extends JavaPlugin implements Listener {
     private CooldownManager cooldownManager;
     private CentersManager centersManager;
     private SpotsManager spotsManager;
+    private LocationPoolManager locationPoolManager;
+    private RejectionCacheManager rejectionCacheManager;
+    private BiomeFilterManager biomeFilterManager;
+    private LoadedChunkManager loadedChunkManager;
+    private WorldBorderManager worldBorderManager;
+    private InFlightSearchManager inFlightSearchManager;
+    private WorldStatsManager worldStatsManager;
+    private TraceManager traceManager;
+    private TeleportUtils teleportUtils;
     
     // Spigot resource ID for update checking
     // TODO: Replace with actual Spigot resource ID when available
@@ -75,6 +94,22 @@ public class MightyRTP extends JavaPlugin implements Listener {
         // Load messages after migration
         messageManager.loadMessages();
         
+        // Location search, negative cache and pre-computed location pool
+        traceManager = new TraceManager(this);
+        traceManager.start();
+        rejectionCacheManager = new RejectionCacheManager(this);
+        biomeFilterManager = new BiomeFilterManager(this);
+        biomeFilterManager.loadBlacklist();
+        loadedChunkManager = new LoadedChunkManager(this);
+        loadedChunkManager.start();
+        worldBorderManager = new WorldBorderManager(this);
+        worldBorderManager.start();
+        inFlightSearchManager = new InFlightSearchManager(this);
+        worldStatsManager = new WorldStatsManager(this);
+        teleportUtils = new TeleportUtils(this);
+        locationPoolManager = new LocationPoolManager(this);
+        locationPoolManager.start();
+        
         // Register commands
         getCommand("rtp").setExecutor(new RTPCommand(this));
         getCommand("rtp").setTabCompleter(new RTPTabCompleter());
@@ -82,9 +117,14 @@ public class MightyRTP extends JavaPlugin implements Listener {
         getCommand("rtp-update").setExecutor(new UpdateCommand(this));
         getCommand("rtp-center").setExecutor(new RTPCenterCommand(this));
         getCommand("rtp-set").setExecutor(new RTPSetCommand(this));
+        getCommand("rtp-debug").setExecutor(new RTPDebugCommand(this));
         
         // Register event listeners
         getServer().getPluginManager().registerEvents(this, this);
+        getServer().getPluginManager().registerEvents(biomeFilterManager, this);
+        getServer().getPluginManager().registerEvents(loadedChunkManager, this);
+        getServer().getPluginManager().registerEvents(worldBorderManager, this);
+        getServer().getPluginManager().registerEvents(inFlightSearchManager, this);
         
         // Check for updates if enabled
         if (configManager.isUpdateCheckEnabled()) {
@@ -96,6 +136,31 @@ public class MightyRTP extends JavaPlugin implements Listener {
     
     @Override
     public void onDisable() {
+        if (locationPoolManager != null) {
+            locationPoolManager.stop();
+        }
+        if (loadedChunkManager != null) {
+            loadedChunkManager.stop();
+        }
+        if (worldBorderManager != null) {
+            worldBorderManager.stop();
+        }
+        if (inFlightSearchManager != null) {
+            inFlightSearchManager.cancelAll();
+        }
+        if (teleportUtils != null) {
+            teleportUtils.shutdown();
+        }
+        if (spotsManager != null) {
+            spotsManager.flush();
+        }
+        if (centersManager != null) {
+            centersManager.flush();
+        }
+        if (traceManager != null) {
+            traceManager.stop();
+        }
+        
         getLogger().info("MightyRTP 1.0.5 has been disabled!");
     }
     
@@ -123,6 +188,42 @@ public class MightyRTP extends JavaPlugin implements Listener {
         return spotsManager;
     }
     
+    public LocationPoolManager getLocationPoolManager() {
+        return locationPoolManager;
+    }
+    
+    public RejectionCacheManager getRejectionCacheManager() {
+        return rejectionCacheManager;
+    }
+    
+    public BiomeFilterManager getBiomeFilterManager() {
+        return biomeFilterManager;
+    }
+    
+    public LoadedChunkManager getLoadedChunkManager() {
+        return loadedChunkManager;
+    }
+    
+    public WorldBorderManager getWorldBorderManager() {
+        return worldBorderManager;
+    }
+    
+    public InFlightSearchManager getInFlightSearchManager() {
+        return inFlightSearchManager;
+    }
+    
+    public WorldStatsManager getWorldStatsManager() {
+        return worldStatsManager;
+    }
+    
+    public TraceManager getTraceManager() {
+        return traceManager;
+    }
+    
+    public TeleportUtils getTeleportUtils() {
+        return teleportUtils;
+    }
+    
     /**
      * Check if debug logging is enabled
      */
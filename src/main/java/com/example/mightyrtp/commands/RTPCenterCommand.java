@@ -55,6 +55,9 @@ public class RTPCenterCommand implements CommandExecutor {
         // Set the center for this world
         centersManager.setCenter(world, x, z);
         
+        // Pooled locations were found around the old center
+        plugin.getLocationPoolManager().clear(world);
+        
         // Send success message
         player.sendMessage("§a[MightyRTP] RTP center set to §e" + x + ", " + z + " §ain world §e" + world.getName());
         player.sendMessage("§7[MightyRTP] All RTP teleports in this world will now use this location as the center point.");
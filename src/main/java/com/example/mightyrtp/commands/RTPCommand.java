@@ -27,7 +27,7 @@ public class RTPCommand implements CommandExecutor {
         this.configManager = plugin.getConfigManager();
         this.messageManager = plugin.getMessageManager();
         this.cooldownManager = plugin.getCooldownManager();
-        this.teleportUtils = new TeleportUtils(plugin);
+        this.teleportUtils = plugin.getTeleportUtils();
     }
     
     @Override
@@ -140,6 +140,11 @@ public class RTPCommand implements CommandExecutor {
             String worldName = args[1];
             World targetWorld = Bukkit.getWorld(worldName);
             if (targetWorld != null) {
+                // A repeated request is merged into the running search and does not count against the cooldown
+                if (mergeIntoRunningSearch(targetPlayer, targetWorld, player, false)) {
+                    return true;
+                }
+                
                 // Check cooldown for the target player (only for player commands)
                 if (!cooldownManager.canUseCommand(targetPlayer)) {
                     long timeUntilReset = cooldownManager.getTimeUntilReset(targetPlayer);
@@ -175,6 +180,11 @@ public class RTPCommand implements CommandExecutor {
             }
         }
         
+        // A repeated request is merged into the running search and does not count against the cooldown
+        if (mergeIntoRunningSearch(targetPlayer, targetPlayer.getWorld(), player, false)) {
+            return true;
+        }
+        
         // Check cooldown for the target player (only for player commands)
         if (!cooldownManager.canUseCommand(targetPlayer)) {
             long timeUntilReset = cooldownManager.getTimeUntilReset(targetPlayer);
@@ -208,7 +218,30 @@ public class RTPCommand implements CommandExecutor {
         return true;
     }
     
+    /**
+     * Absorb a request for a player who is already waiting for a search in the same world (e.g. a portal firing
+     * repeatedly); the running search teleports the player once and the duplicate only gets a notice
+     * A request for another world is not merged - its new search replaces (and cancels) the running one
+     * @return True if the request was merged and must not start another search
+     */
+    private boolean mergeIntoRunningSearch(Player targetPlayer, World world, CommandSender sender, boolean isConsole) {
+        if (!plugin.getInFlightSearchManager().isSearching(targetPlayer, world)) {
+            return false;
+        }
+        if (isConsole) {
+            sender.sendMessage("A location search for " + targetPlayer.getName() + " is already running, request merged.");
+        } else {
+            messageManager.sendMessage((Player) sender, "search-in-progress");
+        }
+        return true;
+    }
+    
     private void executeRTP(Player targetPlayer, CommandSender sender, boolean isConsole, boolean fastMode) {
+        // Console requests skip the cooldown check above, so their duplicates are caught here
+        if (isConsole && mergeIntoRunningSearch(targetPlayer, targetPlayer.getWorld(), sender, true)) {
+            return;
+        }
+        
         // Check if world is blacklisted
         if (configManager.isWorldBlacklisted(targetPlayer.getWorld().getName())) {
             if (isConsole) {
@@ -240,8 +273,15 @@ public class RTPCommand implements CommandExecutor {
             }
         }
         
-        // Find safe location and teleport (async)
-        teleportUtils.findSafeLocationAsync(targetPlayer.getWorld(), targetPlayer.getLocation(), targetPlayer, result -> {
+        // Find safe location and teleport (async, console requests may share a batch search)
+        teleportUtils.findSafeLocationAsync(targetPlayer.getWorld(), targetPlayer.getLocation(), targetPlayer, isConsole, result -> {
+            if (result.isCancelled()) {
+                // The player already got the search-cancelled notice (or left)
+                if (isConsole) {
+                    sender.sendMessage("Search for " + targetPlayer.getName() + " was cancelled: " + result.getMessage());
+                }
+                return;
+            }
             if (result.isSuccess()) {
                 targetPlayer.teleport(result.getLocation());
                 if (isConsole) {
@@ -258,6 +298,21 @@ public class RTPCommand implements CommandExecutor {
                         messageManager.sendMessage(targetPlayer, "teleported");
                     }
                 }
+            } else if (result.isBusy()) {
+                if (isConsole) {
+                    sender.sendMessage("Failed to teleport " + targetPlayer.getName() + ": Too many searches in progress!");
+                    messageManager.sendMessage(targetPlayer, "search-busy");
+                } else {
+                    Player player = (Player) sender;
+                    if (targetPlayer.equals(player)) {
+                        messageManager.sendMessage(player, "search-busy");
+                    } else {
+                        String message = messageManager.getMessage("search-busy");
+                        String formattedMessage = messageManager.parseColorTagsToLegacy(message);
+                        player.sendMessage(formattedMessage);
+                        messageManager.sendMessage(targetPlayer, "search-busy");
+                    }
+                }
             } else if (result.isTimeout()) {
                 if (isConsole) {
                     sender.sendMessage("Failed to teleport " + targetPlayer.getName() + ": Search timeout!");
@@ -293,6 +348,11 @@ public class RTPCommand implements CommandExecutor {
     }
 
     private void executeRTPInWorld(Player targetPlayer, World targetWorld, CommandSender sender, boolean isConsole, boolean fastMode) {
+        // Console requests skip the cooldown check above, so their duplicates are caught here
+        if (isConsole && mergeIntoRunningSearch(targetPlayer, targetWorld, sender, true)) {
+            return;
+        }
+        
         // Check if world is blacklisted
         if (configManager.isWorldBlacklisted(targetWorld.getName())) {
             if (isConsole) {
@@ -324,8 +384,15 @@ public class RTPCommand implements CommandExecutor {
             }
         }
 
-        // Find safe location and teleport (async)
-        teleportUtils.findSafeLocationAsync(targetWorld, targetPlayer.getLocation(), targetPlayer, result -> {
+        // Find safe location and teleport (async, console requests may share a batch search)
+        teleportUtils.findSafeLocationAsync(targetWorld, targetPlayer.getLocation(), targetPlayer, isConsole, result -> {
+            if (result.isCancelled()) {
+                // The player already got the search-cancelled notice (or left)
+                if (isConsole) {
+                    sender.sendMessage("Search for " + targetPlayer.getName() + " was cancelled: " + result.getMessage());
+                }
+                return;
+            }
             if (result.isSuccess()) {
                 targetPlayer.teleport(result.getLocation());
                 if (isConsole) {
@@ -342,6 +409,21 @@ public class RTPCommand implements CommandExecutor {
                         messageManager.sendMessage(targetPlayer, "teleported");
                     }
                 }
+            } else if (result.isBusy()) {
+                if (isConsole) {
+                    sender.sendMessage("Failed to teleport " + targetPlayer.getName() + ": Too many searches in progress!");
+                    messageManager.sendMessage(targetPlayer, "search-busy");
+                } else {
+                    Player player = (Player) sender;
+                    if (targetPlayer.equals(player)) {
+                        messageManager.sendMessage(player, "search-busy");
+                    } else {
+                        String message = messageManager.getMessage("search-busy");
+                        String formattedMessage = messageManager.parseColorTagsToLegacy(message);
+                        player.sendMessage(formattedMessage);
+                        messageManager.sendMessage(targetPlayer, "search-busy");
+                    }
+                }
             } else if (result.isTimeout()) {
                 if (isConsole) {
                     sender.sendMessage("Failed to teleport " + targetPlayer.getName() + ": Search timeout!");
@@ -0,0 +1,62 @@
+package com.example.mightyrtp.commands;
+
+import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.managers.TraceManager;
+import com.example.mightyrtp.utils.TeleportUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+public class RTPDebugCommand implements CommandExecutor {
+    
+    private final MightyRTP plugin;
+    
+    public RTPDebugCommand(MightyRTP plugin) {
+        this.plugin = plugin;
+    }
+    
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // Check if sender has permission
+        if (!sender.hasPermission("mightyrtp.debug")) {
+            if (sender instanceof Player) {
+                sender.sendMessage("§c[MightyRTP] You don't have permission to use this command!");
+            } else {
+                sender.sendMessage("You don't have permission to use this command!");
+            }
+            return true;
+        }
+        
+        TraceManager traceManager = plugin.getTraceManager();
+        String action = args.length > 0 ? args[0].toLowerCase() : "status";
+        
+        switch (action) {
+            case "dump":
+                // Written on an async thread - the sender is notified when the file is ready
+                sender.sendMessage("§7[MightyRTP] Writing " + traceManager.getEventCount() + " trace events...");
+                traceManager.dump(sender);
+                break;
+            case "clear":
+                traceManager.clear();
+                sender.sendMessage("§a[MightyRTP] Search trace cleared.");
+                break;
+            case "status":
+                sender.sendMessage("§a[MightyRTP] Search tracing is " + (traceManager.isEnabled() ? "§eenabled" : "§edisabled §a(set debug.enabled in config.yml)"));
+                sender.sendMessage("§7[MightyRTP] Buffered events: " + traceManager.getEventCount() + "/" + traceManager.getCapacity());
+                TeleportUtils teleportUtils = plugin.getTeleportUtils();
+                sender.sendMessage("§7[MightyRTP] Searches: " + teleportUtils.getRunningSearchCount() + " running, "
+                        + teleportUtils.getQueuedSearchCount() + " queued"
+                        + (teleportUtils.isUsingVirtualThreads() ? " (virtual threads)" : ""));
+                for (String line : plugin.getWorldStatsManager().describe(plugin.getConfigManager().getSettings())) {
+                    sender.sendMessage("§7[MightyRTP] " + line);
+                }
+                break;
+            default:
+                sender.sendMessage("§c[MightyRTP] Usage: /" + label + " <dump|status|clear>");
+                break;
+        }
+        
+        return true;
+    }
+}
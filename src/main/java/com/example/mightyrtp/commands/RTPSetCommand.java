@@ -8,12 +8,19 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+
 public class RTPSetCommand implements CommandExecutor {
     
     private final MightyRTP plugin;
     private final SpotsManager spotsManager;
     private final MessageManager messageManager;
     
+    /**
+     * Spots listed by /rtp-set near before the rest is summarised
+     */
+    private static final int MAX_LISTED_SPOTS = 10;
+    
     public RTPSetCommand(MightyRTP plugin) {
         this.plugin = plugin;
         this.spotsManager = plugin.getSpotsManager();
@@ -49,13 +56,57 @@ public class RTPSetCommand implements CommandExecutor {
             return true;
         }
         
-        // Add the spot
-        spotsManager.addSpot(world, location);
+        if (args.length > 0) {
+            switch (args[0].toLowerCase()) {
+                case "remove":
+                    removeSpot(player, location, world);
+                    return true;
+                case "nearest":
+                    showNearestSpot(player, location, world);
+                    return true;
+                case "near":
+                    listSpotsNear(player, location, world, label, args);
+                    return true;
+                case "import":
+                    int imported = spotsManager.importFromYaml();
+                    player.sendMessage("§a[MightyRTP] Imported §e" + imported + " §aspots from spots.yml.");
+                    plugin.getLogger().info("Imported " + imported + " teleport spots from spots.yml by " + player.getName());
+                    return true;
+                case "export":
+                    int exported = spotsManager.exportToYaml();
+                    player.sendMessage("§a[MightyRTP] Exporting §e" + exported + " §aspots to spots.yml.");
+                    return true;
+                default:
+                    break;
+            }
+        }
+        
+        // Optional weight: relative chance of the spot being picked
+        double weight = 1.0;
+        if (args.length > 0) {
+            try {
+                weight = Double.parseDouble(args[0]);
+            } catch (NumberFormatException e) {
+                weight = -1;
+            }
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                player.sendMessage("§c[MightyRTP] Invalid weight: " + args[0] + " (use a number of 0 or more)");
+                player.sendMessage("§7[MightyRTP] Usage: /" + label + " [weight] | remove | nearest | near <radius> | import | export");
+                return true;
+            }
+        }
+        
+        // Add the spot (refused if one already exists within 1 block)
+        if (!spotsManager.addSpot(world, location, weight)) {
+            player.sendMessage("§c[MightyRTP] There already is a teleport spot at this location. Use §e/" + label + " remove §cto remove it first.");
+            return true;
+        }
         
         int spotCount = spotsManager.getSpotCount(world);
         
         // Send success message
-        player.sendMessage("§a[MightyRTP] Teleport spot added at §e" + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + " §ain world §e" + world.getName());
+        player.sendMessage("§a[MightyRTP] Teleport spot added at §e" + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + " §ain world §e" + world.getName()
+                + (weight != 1.0 ? " §awith weight §e" + weight : ""));
         player.sendMessage("§7[MightyRTP] Total spots in this world: §e" + spotCount);
         player.sendMessage("§7[MightyRTP] Remember to set teleport-distance to 'CUSTOM' in config.yml for these spots to be used.");
         
@@ -63,5 +114,64 @@ public class RTPSetCommand implements CommandExecutor {
         
         return true;
     }
+    
+    /**
+     * Remove the spots within 1 block of the player
+     */
+    private void removeSpot(Player player, org.bukkit.Location location, org.bukkit.World world) {
+        if (!spotsManager.removeSpot(world, location)) {
+            player.sendMessage("§c[MightyRTP] There is no teleport spot at your location. Use §e/rtp-set nearest §cto find one.");
+            return;
+        }
+        player.sendMessage("§a[MightyRTP] Teleport spot removed at §e" + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + " §ain world §e" + world.getName());
+        player.sendMessage("§7[MightyRTP] Total spots in this world: §e" + spotsManager.getSpotCount(world));
+        plugin.getLogger().info("Teleport spot removed at " + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + " in world " + world.getName() + " by " + player.getName());
+    }
+    
+    /**
+     * Show the spot closest to the player
+     */
+    private void showNearestSpot(Player player, org.bukkit.Location location, org.bukkit.World world) {
+        org.bukkit.Location nearest = spotsManager.getNearestSpot(world, location);
+        if (nearest == null) {
+            player.sendMessage("§c[MightyRTP] There are no teleport spots in world §e" + world.getName());
+            return;
+        }
+        player.sendMessage("§a[MightyRTP] Nearest teleport spot: §e" + formatSpot(nearest, location));
+    }
+    
+    /**
+     * List the spots within a radius of the player, nearest first
+     */
+    private void listSpotsNear(Player player, org.bukkit.Location location, org.bukkit.World world, String label, String[] args) {
+        int radius;
+        try {
+            radius = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        } catch (NumberFormatException e) {
+            radius = -1;
+        }
+        if (radius < 1 || radius > 16384) {
+            player.sendMessage("§c[MightyRTP] Usage: /" + label + " near <radius> (1-16384 blocks)");
+            return;
+        }
+        
+        List<org.bukkit.Location> nearby = spotsManager.getSpotsWithin(world, location, radius);
+        if (nearby.isEmpty()) {
+            player.sendMessage("§7[MightyRTP] No teleport spots within §e" + radius + " §7blocks.");
+            return;
+        }
+        player.sendMessage("§a[MightyRTP] " + nearby.size() + " teleport spot(s) within §e" + radius + " §ablocks:");
+        for (int i = 0; i < Math.min(MAX_LISTED_SPOTS, nearby.size()); i++) {
+            player.sendMessage("§7 - §e" + formatSpot(nearby.get(i), location));
+        }
+        if (nearby.size() > MAX_LISTED_SPOTS) {
+            player.sendMessage("§7 ...and " + (nearby.size() - MAX_LISTED_SPOTS) + " more");
+        }
+    }
+    
+    private String formatSpot(org.bukkit.Location spot, org.bukkit.Location from) {
+        return spot.getBlockX() + ", " + spot.getBlockY() + ", " + spot.getBlockZ()
+                + " §7(" + Math.round(spot.distance(from)) + " blocks away)";
+    }
 }
 
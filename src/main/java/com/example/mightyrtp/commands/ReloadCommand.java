@@ -38,8 +38,14 @@ public class ReloadCommand implements CommandExecutor {
             // Reload all configuration files
             configManager.reloadConfig();
             messageManager.reloadMessages();
+            plugin.getTraceManager().reload();
+            plugin.getTeleportUtils().reloadSettings();
             plugin.getCentersManager().reloadCenters();
             plugin.getSpotsManager().reloadSpots();
+            plugin.getRejectionCacheManager().clear();
+            plugin.getWorldStatsManager().clear();
+            plugin.getBiomeFilterManager().loadBlacklist();
+            plugin.getLocationPoolManager().reload();
             
             // Send success message
             if (sender instanceof Player) {
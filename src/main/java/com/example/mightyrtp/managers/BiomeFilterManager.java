@@ -0,0 +1,105 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cheap biome pre-filter for search candidates.
+ * Chunks are learned from search snapshots that had no safe column at all and whose dominant biome is blacklisted;
+ * they are kept in a per-world set so candidates there are rejected before their chunk is ever requested again.
+ * Chunks the server loads for other reasons are not sampled: a single column says nothing about the rest of a chunk,
+ * and coastal or river chunks with good land would be excluded for good.
+ */
+public class BiomeFilterManager implements Listener {
+
+    private final MightyRTP plugin;
+    private final Map<UUID, Set<Long>> excludedChunks;
+    private volatile Set<Biome> blacklistedBiomes;
+
+    public BiomeFilterManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.excludedChunks = new ConcurrentHashMap<>();
+        this.blacklistedBiomes = EnumSet.noneOf(Biome.class);
+    }
+
+    /**
+     * Compile the biome blacklist from config (call on load and reload)
+     * Previously learned chunks are forgotten since they were matched against the old blacklist
+     */
+    public void loadBlacklist() {
+        excludedChunks.clear();
+
+        Set<Biome> biomes = EnumSet.noneOf(Biome.class);
+        for (String name : plugin.getConfigManager().getBlacklistedBiomeNames()) {
+            try {
+                biomes.add(Biome.valueOf(name.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid biome name in config: " + name);
+            }
+        }
+        blacklistedBiomes = biomes;
+    }
+
+    /**
+     * Check if the biome filter is active (enabled and has at least one blacklisted biome)
+     */
+    public boolean isActive() {
+        return plugin.getConfigManager().isBiomeFilterEnabled() && !blacklistedBiomes.isEmpty();
+    }
+
+    /**
+     * Check if a biome is blacklisted as an RTP destination
+     */
+    public boolean isBlacklisted(Biome biome) {
+        return biome != null && blacklistedBiomes.contains(biome);
+    }
+
+    /**
+     * Check if a candidate is known to be in a blacklisted biome without loading its chunk
+     * Returns false for chunks no search has learned yet
+     * Safe to call from any thread
+     */
+    public boolean isExcluded(World world, int x, int z) {
+        if (!isActive()) {
+            return false;
+        }
+
+        Set<Long> chunks = excludedChunks.get(world.getUID());
+        return chunks != null && chunks.contains(chunkKey(x >> 4, z >> 4));
+    }
+
+    /**
+     * Record the dominant biome of a chunk without a safe column (only chunks in blacklisted biomes are kept)
+     * Safe to call from any thread
+     */
+    public void recordBiome(World world, int chunkX, int chunkZ, Biome biome) {
+        if (!isBlacklisted(biome) || !isActive()) {
+            return;
+        }
+
+        Set<Long> chunks = excludedChunks.computeIfAbsent(world.getUID(), id -> ConcurrentHashMap.newKeySet());
+        if (chunks.size() >= plugin.getConfigManager().getBiomeFilterMaxEntries()) {
+            chunks.clear(); // Start over rather than grow without bound
+        }
+        chunks.add(chunkKey(chunkX, chunkZ));
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        excludedChunks.remove(event.getWorld().getUID());
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
@@ -7,8 +7,8 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 public class CentersManager {
@@ -16,10 +16,12 @@ public class CentersManager {
     private final MightyRTP plugin;
     private FileConfiguration centersConfig;
     private File centersFile;
+    private final WriteBehindFile writer;
     
     public CentersManager(MightyRTP plugin) {
         this.plugin = plugin;
         this.centersFile = new File(plugin.getDataFolder(), "centers.yml");
+        this.writer = new WriteBehindFile(plugin, centersFile, () -> centersConfig.saveToString().getBytes(StandardCharsets.UTF_8));
     }
     
     /**
@@ -41,6 +43,8 @@ public class CentersManager {
      * Reload the centers.yml file
      */
     public void reloadCenters() {
+        // Unsaved changes would otherwise be lost (or overwrite the edited file later)
+        writer.flush();
         centersConfig = YamlConfiguration.loadConfiguration(centersFile);
         // Re-initialize centers for any newly loaded worlds
         initializeWorldCenters();
@@ -77,14 +81,17 @@ public class CentersManager {
     
     /**
      * Save the centers.yml file
+     * The write is delayed by performance.save-delay-ticks and done off the main thread
      */
     public void saveCenters() {
-        try {
-            centersConfig.save(centersFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save centers.yml: " + e.getMessage());
-            e.printStackTrace();
-        }
+        writer.markDirty();
+    }
+    
+    /**
+     * Write pending changes to centers.yml now (call on plugin disable)
+     */
+    public void flush() {
+        writer.flush();
     }
     
     /**
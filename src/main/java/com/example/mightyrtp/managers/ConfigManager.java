@@ -1,21 +1,33 @@
 package com.example.mightyrtp.managers;
 
 import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.utils.AreaSampler;
+import com.example.mightyrtp.utils.MaterialTable;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ConfigManager {
     
     private final MightyRTP plugin;
     private FileConfiguration config;
+    private volatile RtpSettings settings;
     
     public FileConfiguration getConfig() {
         return config;
     }
     
+    /**
+     * Get the current settings snapshot
+     * Callers that read several values for one request should capture the snapshot once and read from it,
+     * so a concurrent reload can never mix old and new values
+     * @return The immutable settings (replaced atomically on reload)
+     */
+    public RtpSettings getSettings() {
+        return settings;
+    }
+    
     public ConfigManager(MightyRTP plugin) {
         this.plugin = plugin;
     }
@@ -25,19 +37,24 @@ public class ConfigManager {
         config = plugin.getConfig();
         // Migrate config if needed
         plugin.migrateConfig();
+        settings = new RtpSettings(config, plugin.getLogger());
     }
     
     public void reloadConfig() {
         plugin.reloadConfig();
-        config = plugin.getConfig();
+        FileConfiguration reloaded = plugin.getConfig();
+        // Build the whole snapshot before publishing it - searches in flight keep the one they captured
+        RtpSettings reloadedSettings = new RtpSettings(reloaded, plugin.getLogger());
+        config = reloaded;
+        settings = reloadedSettings;
     }
     
     public List<String> getBlacklistedWorlds() {
-        return config.getStringList("blacklisted-worlds");
+        return settings.getBlacklistedWorlds();
     }
     
     public int getTeleportDistance() {
-        return config.getInt("teleport-distance", 5000);
+        return settings.getTeleportDistance();
     }
     
     /**
@@ -45,49 +62,61 @@ public class ConfigManager {
      * @return true if teleport-distance is "CUSTOM" (case-insensitive)
      */
     public boolean isCustomTeleportMode() {
-        String value = config.getString("teleport-distance", "5000");
-        return "CUSTOM".equalsIgnoreCase(value);
+        return settings.isCustomTeleportMode();
     }
     
     public int getMinDistanceFromSpawn() {
-        return config.getInt("min-distance-from-spawn", 500);
+        return settings.getMinDistanceFromSpawn();
     }
     
 
     
+    /**
+     * Get the shape of the RTP area around the center
+     * @return The sampling shape (circle, square or rectangle)
+     */
+    public AreaSampler.Shape getSamplingShape() {
+        return settings.getSamplingShape();
+    }
+    
+    /**
+     * Get the half-size of a rectangular RTP area along Z
+     * @return The Z half-size in blocks
+     */
+    public int getRectangleZDistance() {
+        return settings.getRectangleZDistance();
+    }
+    
     public List<Material> getUnsafeBlocks() {
-        List<String> unsafeBlockNames = config.getStringList("unsafe-blocks");
-        return unsafeBlockNames.stream()
-                .map(name -> {
-                    try {
-                        return Material.valueOf(name);
-                    } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Invalid material name in config: " + name);
-                        return null;
-                    }
-                })
-                .filter(material -> material != null)
-                .collect(Collectors.toList());
+        return settings.getMaterialTable().getUnsafeMaterials();
+    }
+    
+    /**
+     * Get the material lookup tables compiled from the current config
+     * @return The compiled material table (replaced atomically on reload)
+     */
+    public MaterialTable getMaterialTable() {
+        return settings.getMaterialTable();
     }
     
     public boolean isWorldBlacklisted(String worldName) {
-        return getBlacklistedWorlds().contains(worldName);
+        return settings.isWorldBlacklisted(worldName);
     }
     
     public int getCooldownMaxUses() {
-        return config.getInt("cooldown.max-uses", 10);
+        return settings.getCooldownMaxUses();
     }
     
     public int getCooldownTimeWindow() {
-        return config.getInt("cooldown.time-window", 10);
+        return settings.getCooldownTimeWindow();
     }
     
     public boolean isCooldownEnabled() {
-        return config.getBoolean("cooldown.enabled", true);
+        return settings.isCooldownEnabled();
     }
     
     public boolean areTitlesEnabled() {
-        return config.getBoolean("titles.enabled", true);
+        return settings.areTitlesEnabled();
     }
     
     /**
@@ -95,23 +124,39 @@ public class ConfigManager {
      * @return true if console commands should show titles
      */
     public boolean shouldShowTitlesForConsole() {
-        return config.getBoolean("titles.show-for-console", false);
+        return settings.shouldShowTitlesForConsole();
     }
     
     public boolean isDebugEnabled() {
-        return config.getBoolean("debug.enabled", false);
+        return settings.isDebugEnabled();
     }
     
     public int getDebugLogAttemptInterval() {
-        return config.getInt("debug.log-attempt-interval", 10);
+        return settings.getDebugLogAttemptInterval();
+    }
+    
+    /**
+     * Get the number of search trace events kept in memory for /rtp-debug dump
+     * @return The trace buffer size
+     */
+    public int getDebugTraceBufferSize() {
+        return settings.getDebugTraceBufferSize();
     }
     
     public boolean isAsyncTeleportSearchEnabled() {
-        return config.getBoolean("performance.async-teleport-search", true);
+        return settings.isAsyncTeleportSearchEnabled();
     }
     
     public int getMaxSearchTimePerAttempt() {
-        return config.getInt("performance.max-search-time-per-attempt", 50);
+        return settings.getMaxSearchTimePerAttempt();
+    }
+    
+    /**
+     * Get the wall-clock budget of a whole search request
+     * @return The maximum search time in milliseconds
+     */
+    public int getMaxSearchTime() {
+        return settings.getMaxSearchTime();
     }
     
     /**
@@ -119,7 +164,7 @@ public class ConfigManager {
      * @return true if fast mode is enabled
      */
     public boolean isFastModeEnabled() {
-        return config.getBoolean("performance.fast-mode-enabled", true);
+        return settings.isFastModeEnabled();
     }
     
     /**
@@ -127,7 +172,7 @@ public class ConfigManager {
      * @return The maximum attempts in fast mode
      */
     public int getFastModeMaxAttempts() {
-        return config.getInt("performance.fast-mode-max-attempts", 5);
+        return settings.getFastModeMaxAttempts();
     }
     
     /**
@@ -135,7 +180,17 @@ public class ConfigManager {
      * @return The fast mode safety level (1=basic, 2=standard, 3=full)
      */
     public int getFastModeSafetyLevel() {
-        return config.getInt("performance.fast-mode-safety-level", 2);
+        return settings.getFastModeSafetyLevel();
+    }
+    
+    /**
+     * Get the number of candidate chunks a search keeps loading at the same time in a world
+     * Per-world overrides use the "world:count" format
+     * @param worldName The world being searched
+     * @return The number of parallel chunk loads (at least 1)
+     */
+    public int getParallelChunkLoads(String worldName) {
+        return settings.getParallelChunkLoads(worldName);
     }
     
     /**
@@ -143,7 +198,7 @@ public class ConfigManager {
      * @return The safety strictness level (1-5)
      */
     public int getSafetyStrictness() {
-        return config.getInt("safety.strictness", 3);
+        return settings.getSafetyStrictness();
     }
 
     /**
@@ -151,7 +206,127 @@ public class ConfigManager {
      * @return The maximum number of attempts
      */
     public int getMaxAttempts() {
-        return config.getInt("safety.max-attempts", 50);
+        return settings.getMaxAttempts();
+    }
+    
+    /**
+     * Check if the pre-computed location pool is enabled
+     * @return true if safe locations should be pre-computed in the background
+     */
+    public boolean isLocationPoolEnabled() {
+        return settings.isLocationPoolEnabled();
+    }
+    
+    /**
+     * Get the number of pre-computed locations to keep ready per world
+     * @return The target pool size per world
+     */
+    public int getLocationPoolSize() {
+        return settings.getLocationPoolSize();
+    }
+    
+    /**
+     * Get the delay between pool refill cycles
+     * @return The refill interval in ticks
+     */
+    public int getLocationPoolRefillInterval() {
+        return settings.getLocationPoolRefillInterval();
+    }
+    
+    /**
+     * Get the maximum number of background searches started per refill cycle
+     * @return The number of searches per cycle
+     */
+    public int getLocationPoolRefillPerCycle() {
+        return settings.getLocationPoolRefillPerCycle();
+    }
+    
+    /**
+     * Get the maximum age of a pooled location before it is discarded
+     * @return The maximum age in seconds
+     */
+    public int getLocationPoolMaxAge() {
+        return settings.getLocationPoolMaxAge();
+    }
+    
+    /**
+     * Check if the negative cache of rejected columns and chunks is enabled
+     * @return true if rejected areas should be skipped by later searches
+     */
+    public boolean isRejectionCacheEnabled() {
+        return settings.isRejectionCacheEnabled();
+    }
+    
+    /**
+     * Get how long a rejected column or chunk stays cached
+     * @return The expiry time in seconds
+     */
+    public int getRejectionCacheExpiry() {
+        return settings.getRejectionCacheExpiry();
+    }
+    
+    /**
+     * Get the number of rejected columns after which a whole chunk is skipped
+     * @return The rejected column threshold per chunk
+     */
+    public int getRejectionCacheChunkThreshold() {
+        return settings.getRejectionCacheChunkThreshold();
+    }
+    
+    /**
+     * Get the maximum number of chunks kept in the rejection cache per world
+     * @return The maximum number of cached chunks
+     */
+    public int getRejectionCacheMaxEntries() {
+        return settings.getRejectionCacheMaxEntries();
+    }
+    
+    /**
+     * Check if the biome pre-filter is enabled
+     * @return true if candidates in blacklisted biomes should be rejected
+     */
+    public boolean isBiomeFilterEnabled() {
+        return settings.isBiomeFilterEnabled();
+    }
+    
+    /**
+     * Get the names of biomes that are never used as RTP destinations
+     * @return The blacklisted biome names as written in config
+     */
+    public List<String> getBlacklistedBiomeNames() {
+        return settings.getBlacklistedBiomeNames();
+    }
+    
+    /**
+     * Get the maximum number of chunks remembered as blacklisted per world
+     * @return The maximum number of remembered chunks
+     */
+    public int getBiomeFilterMaxEntries() {
+        return settings.getBiomeFilterMaxEntries();
+    }
+    
+    /**
+     * Check if searches should sample already loaded chunks before cold ones
+     * @return true if the loaded-chunk-first strategy is enabled
+     */
+    public boolean isLoadedChunkSamplingEnabled() {
+        return settings.isLoadedChunkSamplingEnabled();
+    }
+    
+    /**
+     * Get how many random loaded chunks are drawn per candidate before falling back to a cold chunk
+     * @return The number of draws per candidate
+     */
+    public int getLoadedChunkSampleTries() {
+        return settings.getLoadedChunkSampleTries();
+    }
+    
+    /**
+     * Get the radius (in chunks) around online players in which loaded chunks are never picked
+     * @return The player exclusion radius in chunks
+     */
+    public int getLoadedChunkPlayerExclusionRadius() {
+        return settings.getLoadedChunkPlayerExclusionRadius();
     }
     
     /**
@@ -159,10 +334,10 @@ public class ConfigManager {
      * @return true if update checking is enabled
      */
     public boolean isUpdateCheckEnabled() {
-        if (config == null) {
+        if (settings == null) {
             return true; // Default to enabled if config not loaded
         }
-        return config.getBoolean("general.check-updates", true);
+        return settings.isUpdateCheckEnabled();
     }
     
 
@@ -23,8 +23,10 @@ public class CooldownManager {
             return true;
         }
         
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        
         // Check if cooldown is enabled
-        if (!plugin.getConfigManager().isCooldownEnabled()) {
+        if (!settings.isCooldownEnabled()) {
             return true;
         }
         
@@ -42,7 +44,7 @@ public class CooldownManager {
         }
         
         // Check if the current cooldown window has expired
-        long cooldownEndTime = cooldown.getStartTime() + (plugin.getConfigManager().getCooldownTimeWindow() * 60 * 1000);
+        long cooldownEndTime = cooldown.getStartTime() + (settings.getCooldownTimeWindow() * 60 * 1000);
         
         if (currentTime >= cooldownEndTime) {
             // Cooldown window expired, start a new one and count this use
@@ -54,7 +56,7 @@ public class CooldownManager {
         
         // Check if player can use the command within the current window
         // We need to check if adding this use would exceed the limit
-        if (cooldown.getUseCount() >= plugin.getConfigManager().getCooldownMaxUses()) {
+        if (cooldown.getUseCount() >= settings.getCooldownMaxUses()) {
             return false;
         }
         
@@ -69,27 +71,29 @@ public class CooldownManager {
             return Integer.MAX_VALUE;
         }
         
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        
         // If cooldown is disabled, return max uses
-        if (!plugin.getConfigManager().isCooldownEnabled()) {
-            return plugin.getConfigManager().getCooldownMaxUses();
+        if (!settings.isCooldownEnabled()) {
+            return settings.getCooldownMaxUses();
         }
         
         UUID playerId = player.getUniqueId();
         PlayerCooldown cooldown = playerCooldowns.get(playerId);
         
         if (cooldown == null) {
-            return plugin.getConfigManager().getCooldownMaxUses();
+            return settings.getCooldownMaxUses();
         }
         
         long currentTime = System.currentTimeMillis();
-        long cooldownEndTime = cooldown.getStartTime() + (plugin.getConfigManager().getCooldownTimeWindow() * 60 * 1000);
+        long cooldownEndTime = cooldown.getStartTime() + (settings.getCooldownTimeWindow() * 60 * 1000);
         
         // If cooldown window has expired, reset remaining uses
         if (currentTime >= cooldownEndTime) {
-            return plugin.getConfigManager().getCooldownMaxUses();
+            return settings.getCooldownMaxUses();
         }
         
-        return plugin.getConfigManager().getCooldownMaxUses() - cooldown.getUseCount();
+        return settings.getCooldownMaxUses() - cooldown.getUseCount();
     }
     
     public long getTimeUntilReset(Player player) {
@@ -98,8 +102,10 @@ public class CooldownManager {
             return 0;
         }
         
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        
         // If cooldown is disabled, return 0 (no time to wait)
-        if (!plugin.getConfigManager().isCooldownEnabled()) {
+        if (!settings.isCooldownEnabled()) {
             return 0;
         }
         
@@ -111,7 +117,7 @@ public class CooldownManager {
         }
         
         long currentTime = System.currentTimeMillis();
-        long cooldownEndTime = cooldown.getStartTime() + (plugin.getConfigManager().getCooldownTimeWindow() * 60 * 1000);
+        long cooldownEndTime = cooldown.getStartTime() + (settings.getCooldownTimeWindow() * 60 * 1000);
         
         if (currentTime >= cooldownEndTime) {
             return 0; // Cooldown has already reset
@@ -0,0 +1,160 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.utils.LocationSearch;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the location search running for each target player.
+ * Repeated /rtp requests for a player who is already waiting are merged into the running search instead of starting
+ * another one, and a running search is cancelled as soon as its result would be useless (quit, world change, or a
+ * teleport by something else), which releases its chunk requests and search slot right away.
+ */
+public class InFlightSearchManager implements Listener {
+
+    private final MightyRTP plugin;
+    private final Map<UUID, Entry> searches;
+
+    public InFlightSearchManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.searches = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Check if a search for a world is already running for a player (duplicate requests should be merged into it)
+     * A running search for another world does not count - the new request replaces it
+     */
+    public boolean isSearching(Player player, World world) {
+        Entry entry = searches.get(player.getUniqueId());
+        return entry != null && entry.worldId.equals(world.getUID());
+    }
+
+    /**
+     * Register a new search for a player, cancelling any search the player still had running
+     * Call finish() with the returned entry when the search result is delivered
+     */
+    public Entry register(Player player, World world) {
+        Entry entry = new Entry(player.getUniqueId(), world.getUID());
+        Entry previous = searches.put(entry.playerId, entry);
+        if (previous != null) {
+            previous.cancel("replaced by a new request");
+        }
+        return entry;
+    }
+
+    /**
+     * Remove a search whose result is being delivered (a newer search for the same player is left alone)
+     */
+    public void finish(Entry entry) {
+        searches.remove(entry.playerId, entry);
+    }
+
+    /**
+     * Cancel the running search for a player, if any
+     * @return True if a search was cancelled
+     */
+    public boolean cancel(UUID playerId, String reason) {
+        Entry entry = searches.remove(playerId);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancel(reason);
+        if (plugin.getConfigManager().isDebugEnabled()) {
+            plugin.getLogger().info("[MightyRTP] Cancelled search for " + playerId + ": " + reason);
+        }
+        return true;
+    }
+
+    /**
+     * Cancel every running search (call on plugin disable)
+     */
+    public void cancelAll() {
+        for (UUID playerId : searches.keySet()) {
+            cancel(playerId, "plugin disabled");
+        }
+    }
+
+    public int getSearchCount() {
+        return searches.size();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        cancel(event.getPlayer().getUniqueId(), "player left");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        Entry entry = searches.get(player.getUniqueId());
+        // A search for the world the player just entered is still useful
+        if (entry != null && !entry.worldId.equals(player.getWorld().getUID()) && cancel(player.getUniqueId(), "player changed world")) {
+            plugin.getMessageManager().sendMessage(player, "search-cancelled");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        // Our own teleport happens after finish(), so any teleport seen here comes from something else
+        if (cancel(event.getPlayer().getUniqueId(), "player was teleported (" + event.getCause() + ")")) {
+            plugin.getMessageManager().sendMessage(event.getPlayer(), "search-cancelled");
+        }
+    }
+
+    /**
+     * One running search; the LocationSearch is attached once it has been created
+     */
+    public static final class Entry {
+        private final UUID playerId;
+        private final UUID worldId;
+        private LocationSearch search;
+        private String cancelReason;
+
+        private Entry(UUID playerId, UUID worldId) {
+            this.playerId = playerId;
+            this.worldId = worldId;
+        }
+
+        /**
+         * Attach the search, cancelling it right away if the entry was cancelled first
+         */
+        public synchronized void attach(LocationSearch search) {
+            this.search = search;
+            if (cancelReason != null) {
+                search.cancel(cancelReason);
+            }
+        }
+
+        /**
+         * Check if the player's request was cancelled (its result must not be used anymore)
+         */
+        public synchronized boolean isCancelled() {
+            return cancelReason != null;
+        }
+
+        public synchronized String getCancelReason() {
+            return cancelReason;
+        }
+
+        private synchronized void cancel(String reason) {
+            if (cancelReason != null) {
+                return;
+            }
+            cancelReason = reason;
+            if (search != null) {
+                search.cancel(reason);
+            }
+        }
+    }
+}
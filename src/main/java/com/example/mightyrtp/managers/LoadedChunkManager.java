@@ -0,0 +1,243 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.utils.AreaSampler;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongPredicate;
+
+/**
+ * Tracks which chunks each world currently has loaded so searches can sample them first.
+ * A candidate in an already loaded chunk costs no disk I/O and no chunk generation.
+ * Chunks close to online players are never offered, so teleported players don't end up next to each other.
+ */
+public class LoadedChunkManager implements Listener {
+
+    /**
+     * Returned by sampleChunk when no loaded chunk qualifies
+     */
+    public static final long NO_CHUNK = Long.MIN_VALUE;
+
+    /**
+     * How often player positions are refreshed (20 ticks = 1 second)
+     */
+    private static final long PLAYER_REFRESH_TICKS = 20L;
+
+    private final MightyRTP plugin;
+    private final Map<UUID, LoadedChunkSet> loadedChunks;
+    private final Map<UUID, long[]> playerChunks;
+    private BukkitTask playerRefreshTask;
+
+    public LoadedChunkManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.loadedChunks = new ConcurrentHashMap<>();
+        this.playerChunks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Start tracking (registers already loaded chunks and the player position refresh task)
+     */
+    public void start() {
+        stop();
+        for (World world : plugin.getServer().getWorlds()) {
+            trackWorld(world);
+        }
+        playerRefreshTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::refreshPlayerChunks, 0L, PLAYER_REFRESH_TICKS);
+    }
+
+    /**
+     * Stop tracking
+     */
+    public void stop() {
+        if (playerRefreshTask != null) {
+            playerRefreshTask.cancel();
+            playerRefreshTask = null;
+        }
+        loadedChunks.clear();
+        playerChunks.clear();
+    }
+
+    /**
+     * Pick a random loaded chunk whose center lies inside the sampled area
+     * Chunks within the configured radius of any online player are skipped
+     * Safe to call from any thread
+     * @param exclude Chunks (packed keys) the caller cannot use, e.g. already requested or known to be rejected
+     * @return The packed chunk key (see getChunkX/getChunkZ), or NO_CHUNK if no sampled chunk qualified
+     */
+    public long sampleChunk(World world, AreaSampler area, LongPredicate exclude) {
+        LoadedChunkSet chunks = loadedChunks.get(world.getUID());
+        if (chunks == null) {
+            return NO_CHUNK;
+        }
+
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        int tries = settings.getLoadedChunkSampleTries();
+        int exclusionRadius = settings.getLoadedChunkPlayerExclusionRadius();
+        long[] players = playerChunks.get(world.getUID());
+
+        for (int i = 0; i < tries; i++) {
+            long key = chunks.randomKey();
+            if (key == NO_CHUNK) {
+                return NO_CHUNK;
+            }
+
+            int chunkX = getChunkX(key);
+            int chunkZ = getChunkZ(key);
+            if (!area.contains((chunkX << 4) + 8, (chunkZ << 4) + 8)) {
+                continue;
+            }
+            if (isNearPlayer(players, chunkX, chunkZ, exclusionRadius) || exclude.test(key)) {
+                continue;
+            }
+            return key;
+        }
+        return NO_CHUNK;
+    }
+
+    /**
+     * Check if a chunk is currently loaded (from the tracked set, safe to call from any thread)
+     */
+    public boolean isLoaded(World world, int chunkX, int chunkZ) {
+        LoadedChunkSet chunks = loadedChunks.get(world.getUID());
+        return chunks != null && chunks.contains(chunkKey(chunkX, chunkZ));
+    }
+
+    public static int getChunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int getChunkZ(long key) {
+        return (int) key;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private boolean isNearPlayer(long[] players, int chunkX, int chunkZ, int radius) {
+        if (players == null) {
+            return false;
+        }
+        for (long player : players) {
+            if (Math.abs(getChunkX(player) - chunkX) <= radius && Math.abs(getChunkZ(player) - chunkZ) <= radius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Snapshot the chunk positions of online players per world (main thread)
+     */
+    private void refreshPlayerChunks() {
+        for (World world : plugin.getServer().getWorlds()) {
+            List<Player> players = world.getPlayers();
+            long[] positions = new long[players.size()];
+            for (int i = 0; i < positions.length; i++) {
+                org.bukkit.Location location = players.get(i).getLocation();
+                positions[i] = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+            }
+            playerChunks.put(world.getUID(), positions);
+        }
+    }
+
+    private void trackWorld(World world) {
+        LoadedChunkSet chunks = new LoadedChunkSet();
+        for (Chunk chunk : world.getLoadedChunks()) {
+            chunks.add(chunkKey(chunk.getX(), chunk.getZ()));
+        }
+        loadedChunks.put(world.getUID(), chunks);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        LoadedChunkSet chunks = loadedChunks.get(event.getWorld().getUID());
+        if (chunks != null) {
+            chunks.add(chunkKey(event.getChunk().getX(), event.getChunk().getZ()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        LoadedChunkSet chunks = loadedChunks.get(event.getWorld().getUID());
+        if (chunks != null) {
+            chunks.remove(chunkKey(event.getChunk().getX(), event.getChunk().getZ()));
+        }
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        if (playerRefreshTask != null) {
+            trackWorld(event.getWorld());
+        }
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        loadedChunks.remove(event.getWorld().getUID());
+        playerChunks.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Set of chunk keys with O(1) add, remove and uniform random pick (swap-remove array plus index map)
+     */
+    private static class LoadedChunkSet {
+        private final Map<Long, Integer> indexByKey = new HashMap<>();
+        private long[] keys = new long[256];
+        private int size;
+
+        private synchronized void add(long key) {
+            if (indexByKey.containsKey(key)) {
+                return;
+            }
+            if (size == keys.length) {
+                long[] grown = new long[keys.length * 2];
+                System.arraycopy(keys, 0, grown, 0, size);
+                keys = grown;
+            }
+            keys[size] = key;
+            indexByKey.put(key, size);
+            size++;
+        }
+
+        private synchronized void remove(long key) {
+            Integer index = indexByKey.remove(key);
+            if (index == null) {
+                return;
+            }
+            size--;
+            if (index != size) {
+                long last = keys[size];
+                keys[index] = last;
+                indexByKey.put(last, index);
+            }
+        }
+
+        private synchronized boolean contains(long key) {
+            return indexByKey.containsKey(key);
+        }
+
+        private synchronized long randomKey() {
+            if (size == 0) {
+                return NO_CHUNK;
+            }
+            return keys[ThreadLocalRandom.current().nextInt(size)];
+        }
+    }
+}
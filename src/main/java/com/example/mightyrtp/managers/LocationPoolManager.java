@@ -0,0 +1,216 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps a small pool of already validated destinations per world so /rtp can be served instantly.
+ * The pool is refilled in the background at a throttled rate using the normal location search.
+ */
+public class LocationPoolManager {
+
+    private final MightyRTP plugin;
+    private final Map<UUID, Queue<PooledLocation>> pools;
+    private final Set<UUID> refilling;
+    private BukkitTask refillTask;
+    // Bumped whenever pools are cleared so searches started before the clear don't refill them
+    private volatile int generation;
+
+    public LocationPoolManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.pools = new ConcurrentHashMap<>();
+        this.refilling = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Start the background refill task (does nothing if the pool is disabled)
+     */
+    public void start() {
+        stop();
+
+        ConfigManager configManager = plugin.getConfigManager();
+        if (!configManager.isLocationPoolEnabled()) {
+            return;
+        }
+
+        long interval = Math.max(1, configManager.getLocationPoolRefillInterval());
+        refillTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::refill, interval, interval);
+    }
+
+    /**
+     * Stop the background refill task
+     */
+    public void stop() {
+        if (refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+    }
+
+    /**
+     * Restart the pool after a config reload, dropping everything that was found with the old settings
+     */
+    public void reload() {
+        clear();
+        start();
+    }
+
+    /**
+     * Drop all pooled locations for every world
+     */
+    public void clear() {
+        generation++;
+        pools.clear();
+    }
+
+    /**
+     * Drop all pooled locations for a world (e.g. after its RTP center changed)
+     */
+    public void clear(World world) {
+        generation++;
+        pools.remove(world.getUID());
+    }
+
+    /**
+     * Take a pooled location for a world
+     * Returns null if the pool is disabled or currently empty
+     */
+    public Location poll(World world) {
+        ConfigManager configManager = plugin.getConfigManager();
+        if (!configManager.isLocationPoolEnabled()) {
+            return null;
+        }
+
+        Queue<PooledLocation> pool = pools.get(world.getUID());
+        if (pool == null) {
+            return null;
+        }
+
+        long oldestAllowed = System.currentTimeMillis() - (configManager.getLocationPoolMaxAge() * 1000L);
+        PooledLocation pooled;
+        while ((pooled = pool.poll()) != null) {
+            if (pooled.createdAt >= oldestAllowed) {
+                return new Location(world, pooled.x, pooled.y, pooled.z);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a validated location to its world's pool (ignored if the pool is already full)
+     */
+    public void offer(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        Queue<PooledLocation> pool = pools.computeIfAbsent(world.getUID(), id -> new ConcurrentLinkedQueue<>());
+        if (pool.size() >= plugin.getConfigManager().getLocationPoolSize()) {
+            return;
+        }
+        pool.add(new PooledLocation(location.getBlockX(), location.getBlockY(), location.getBlockZ(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Add the surplus safe columns harvested from one chunk, at most max-per-chunk of them
+     * Dropped if the pool was cleared since the search started (the locations may not match the current settings)
+     */
+    public void offerHarvested(List<Location> locations, int startedGeneration) {
+        ConfigManager configManager = plugin.getConfigManager();
+        if (!configManager.isLocationPoolEnabled() || startedGeneration != generation) {
+            return;
+        }
+        int limit = Math.min(locations.size(), configManager.getSettings().getLocationPoolMaxPerChunk());
+        for (int i = 0; i < limit; i++) {
+            offer(locations.get(i));
+        }
+    }
+
+    /**
+     * Get the current pool generation (changes whenever pools are cleared)
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the number of pooled locations for a world
+     */
+    public int getPoolSize(World world) {
+        Queue<PooledLocation> pool = pools.get(world.getUID());
+        return pool == null ? 0 : pool.size();
+    }
+
+    /**
+     * Start background searches for worlds whose pool is below the configured size
+     * At most refill-per-cycle searches are started per run, and only one per world at a time
+     * Locations older than max-age are dropped first, so an idle server replaces them instead of counting them as full
+     */
+    private void refill() {
+        ConfigManager configManager = plugin.getConfigManager();
+        if (configManager.isCustomTeleportMode()) {
+            return; // Custom spots are already instant, nothing to pre-compute
+        }
+
+        long oldestAllowed = System.currentTimeMillis() - (configManager.getLocationPoolMaxAge() * 1000L);
+        for (Queue<PooledLocation> pool : pools.values()) {
+            pool.removeIf(pooled -> pooled.createdAt < oldestAllowed);
+        }
+
+        int targetSize = configManager.getLocationPoolSize();
+        int budget = configManager.getLocationPoolRefillPerCycle();
+
+        // Player searches are queueing - leave the search slots to them
+        if (plugin.getTeleportUtils().isSearchBacklogged()) {
+            return;
+        }
+
+        for (World world : plugin.getServer().getWorlds()) {
+            if (budget <= 0) {
+                break;
+            }
+            if (configManager.isWorldBlacklisted(world.getName())) {
+                continue;
+            }
+
+            UUID worldId = world.getUID();
+            if (getPoolSize(world) >= targetSize || !refilling.add(worldId)) {
+                continue;
+            }
+            budget--;
+
+            int startedGeneration = generation;
+            plugin.getTeleportUtils().findFreshLocationAsync(world, result -> {
+                refilling.remove(worldId);
+                if (result.isSuccess() && startedGeneration == generation) {
+                    offer(result.getLocation());
+                }
+            });
+        }
+    }
+
+    private static class PooledLocation {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long createdAt;
+
+        public PooledLocation(int x, int y, int z, long createdAt) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.createdAt = createdAt;
+        }
+    }
+}
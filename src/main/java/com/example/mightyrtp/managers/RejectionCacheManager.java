@@ -0,0 +1,140 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world negative cache of columns and chunks that failed the safety checks.
+ * Searches consult it before requesting a chunk so known oceans and lava lakes don't cost another chunk load.
+ * Entries expire after a configurable time so terrain changes are eventually picked up again.
+ */
+public class RejectionCacheManager {
+
+    private final MightyRTP plugin;
+    private final Map<UUID, Map<Long, ChunkRejections>> caches;
+
+    public RejectionCacheManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.caches = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Drop all cached rejections (e.g. after safety settings changed on reload)
+     */
+    public void clear() {
+        caches.clear();
+    }
+
+    /**
+     * Check if a column is known to be unsafe, either directly or because its chunk has been rejected often enough
+     * Safe to call from any thread
+     */
+    public boolean isRejected(World world, int x, int z) {
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isRejectionCacheEnabled()) {
+            return false;
+        }
+
+        Map<Long, ChunkRejections> cache = caches.get(world.getUID());
+        if (cache == null) {
+            return false;
+        }
+
+        long key = chunkKey(x >> 4, z >> 4);
+        ChunkRejections rejections = cache.get(key);
+        if (rejections == null) {
+            return false;
+        }
+
+        synchronized (rejections) {
+            if (rejections.expiresAt < System.currentTimeMillis()) {
+                cache.remove(key, rejections);
+                return false;
+            }
+            return rejections.count >= settings.getRejectionCacheChunkThreshold()
+                    || rejections.isColumnRejected(x & 15, z & 15);
+        }
+    }
+
+    /**
+     * Remember that a column failed the safety checks
+     * Safe to call from any thread
+     */
+    public void recordRejection(World world, int x, int z) {
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isRejectionCacheEnabled()) {
+            return;
+        }
+
+        Map<Long, ChunkRejections> cache = caches.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>());
+        if (cache.size() >= settings.getRejectionCacheMaxEntries()) {
+            purgeExpired(cache);
+            if (cache.size() >= settings.getRejectionCacheMaxEntries()) {
+                cache.clear(); // Still full of live entries - start over rather than grow without bound
+            }
+        }
+
+        long expiresAt = System.currentTimeMillis() + settings.getRejectionCacheExpiry() * 1000L;
+        ChunkRejections rejections = cache.computeIfAbsent(chunkKey(x >> 4, z >> 4), key -> new ChunkRejections());
+        synchronized (rejections) {
+            if (rejections.expiresAt < System.currentTimeMillis()) {
+                rejections.reset();
+            }
+            rejections.rejectColumn(x & 15, z & 15);
+            rejections.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Get the number of chunks with cached rejections in a world
+     */
+    public int getCachedChunkCount(World world) {
+        Map<Long, ChunkRejections> cache = caches.get(world.getUID());
+        return cache == null ? 0 : cache.size();
+    }
+
+    private void purgeExpired(Map<Long, ChunkRejections> cache) {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(rejections -> {
+            synchronized (rejections) {
+                return rejections.expiresAt < now;
+            }
+        });
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Rejected columns of one chunk as a 256-bit bitset
+     */
+    private static class ChunkRejections {
+        private final long[] columns = new long[4];
+        private int count;
+        private long expiresAt;
+
+        private boolean isColumnRejected(int localX, int localZ) {
+            int index = (localZ << 4) | localX;
+            return (columns[index >> 6] & (1L << index)) != 0;
+        }
+
+        private void rejectColumn(int localX, int localZ) {
+            int index = (localZ << 4) | localX;
+            long bit = 1L << index;
+            if ((columns[index >> 6] & bit) == 0) {
+                columns[index >> 6] |= bit;
+                count++;
+            }
+        }
+
+        private void reset() {
+            columns[0] = columns[1] = columns[2] = columns[3] = 0L;
+            count = 0;
+        }
+    }
+}
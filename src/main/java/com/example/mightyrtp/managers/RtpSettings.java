@@ -0,0 +1,474 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.utils.AreaSampler;
+import com.example.mightyrtp.utils.MaterialTable;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, typed snapshot of config.yml.
+ * Built once per load/reload and published by ConfigManager through a volatile reference, so readers never do
+ * string path lookups and a search that captured a snapshot keeps a consistent view even if /rtp-reload runs meanwhile.
+ */
+public final class RtpSettings {
+
+    /**
+     * Lower bound for the per-attempt budget - a chunk cannot be loaded and captured in less than a couple of ticks
+     */
+    private static final int MIN_SEARCH_TIME_PER_ATTEMPT = 250;
+
+    private final List<String> blacklistedWorlds;
+    private final Set<String> blacklistedWorldSet;
+    private final int teleportDistance;
+    private final boolean customTeleportMode;
+    private final int minDistanceFromSpawn;
+    private final AreaSampler.Shape samplingShape;
+    private final int rectangleZDistance;
+    private final int spotCooldown;
+    private final boolean binarySpotStorage;
+    private final MaterialTable materialTable;
+
+    private final boolean cooldownEnabled;
+    private final int cooldownMaxUses;
+    private final int cooldownTimeWindow;
+
+    private final boolean titlesEnabled;
+    private final boolean showTitlesForConsole;
+
+    private final boolean debugEnabled;
+    private final int debugLogAttemptInterval;
+    private final int debugTraceBufferSize;
+
+    private final boolean asyncTeleportSearchEnabled;
+    private final int maxSearchTimePerAttempt;
+    private final int maxSearchTime;
+    private final boolean fastModeEnabled;
+    private final int fastModeMaxAttempts;
+    private final int fastModeSafetyLevel;
+    private final int parallelChunkLoads;
+    private final int searchThreads;
+    private final int maxConcurrentSearches;
+    private final int searchQueueSize;
+    private final boolean virtualSearchThreads;
+    private final boolean consoleBatchingEnabled;
+    private final int consoleBatchWindowTicks;
+    private final int consoleBatchMaxSize;
+    private final int saveDelayTicks;
+    private final Map<String, Integer> parallelChunkLoadsPerWorld;
+
+    private final int safetyStrictness;
+    private final int maxAttempts;
+
+    private final boolean locationPoolEnabled;
+    private final int locationPoolSize;
+    private final int locationPoolRefillInterval;
+    private final int locationPoolRefillPerCycle;
+    private final int locationPoolMaxAge;
+    private final int locationPoolMaxPerChunk;
+
+    private final boolean rejectionCacheEnabled;
+    private final int rejectionCacheExpiry;
+    private final int rejectionCacheChunkThreshold;
+    private final int rejectionCacheMaxEntries;
+
+    private final boolean biomeFilterEnabled;
+    private final List<String> blacklistedBiomeNames;
+    private final int biomeFilterMaxEntries;
+
+    private final boolean loadedChunkSamplingEnabled;
+    private final int loadedChunkSampleTries;
+    private final int loadedChunkPlayerExclusionRadius;
+
+    private final boolean localRefinementEnabled;
+    private final int localRefinementRadius;
+    private final int localRefinementMaxChunks;
+
+    private final boolean adaptiveBudgetEnabled;
+    private final int adaptiveMinAttempts;
+    private final int adaptiveMaxAttempts;
+    private final int adaptiveMaxParallelChunkLoads;
+    private final double adaptiveSmoothing;
+    private final int adaptiveWarmupSearches;
+
+    private final boolean updateCheckEnabled;
+
+    /**
+     * Read every setting from a loaded config (invalid entries are logged and skipped)
+     */
+    public RtpSettings(FileConfiguration config, Logger logger) {
+        this.blacklistedWorlds = Collections.unmodifiableList(config.getStringList("blacklisted-worlds"));
+        this.blacklistedWorldSet = new HashSet<>(blacklistedWorlds);
+        this.teleportDistance = config.getInt("teleport-distance", 5000);
+        this.customTeleportMode = "CUSTOM".equalsIgnoreCase(config.getString("teleport-distance", "5000"));
+        this.minDistanceFromSpawn = config.getInt("min-distance-from-spawn", 500);
+        AreaSampler.Shape shape = AreaSampler.Shape.fromName(config.getString("sampling.shape", "circle"));
+        if (shape == null) {
+            logger.warning("Invalid sampling shape in config: " + config.getString("sampling.shape") + " (using circle)");
+            shape = AreaSampler.Shape.CIRCLE;
+        }
+        this.samplingShape = shape;
+        this.rectangleZDistance = config.getInt("sampling.rectangle-z-distance", 2500);
+        this.spotCooldown = Math.max(0, config.getInt("custom-spots.spot-cooldown", 0));
+        String spotStorage = config.getString("custom-spots.storage", "yaml");
+        if (!"yaml".equalsIgnoreCase(spotStorage) && !"binary".equalsIgnoreCase(spotStorage)) {
+            logger.warning("Invalid custom-spots.storage in config: " + spotStorage + " (using yaml)");
+        }
+        this.binarySpotStorage = "binary".equalsIgnoreCase(spotStorage);
+        this.materialTable = MaterialTable.compile(config.getStringList("unsafe-blocks"), logger);
+
+        this.cooldownEnabled = config.getBoolean("cooldown.enabled", true);
+        this.cooldownMaxUses = config.getInt("cooldown.max-uses", 10);
+        this.cooldownTimeWindow = config.getInt("cooldown.time-window", 10);
+
+        this.titlesEnabled = config.getBoolean("titles.enabled", true);
+        this.showTitlesForConsole = config.getBoolean("titles.show-for-console", false);
+
+        this.debugEnabled = config.getBoolean("debug.enabled", false);
+        this.debugLogAttemptInterval = config.getInt("debug.log-attempt-interval", 10);
+        this.debugTraceBufferSize = Math.max(1, config.getInt("debug.trace-buffer-size", 2048));
+
+        this.asyncTeleportSearchEnabled = config.getBoolean("performance.async-teleport-search", true);
+        this.maxSearchTimePerAttempt = Math.max(MIN_SEARCH_TIME_PER_ATTEMPT, config.getInt("performance.max-search-time-per-attempt", 1000));
+        this.maxSearchTime = Math.max(MIN_SEARCH_TIME_PER_ATTEMPT, config.getInt("performance.max-search-time", 5000));
+        this.fastModeEnabled = config.getBoolean("performance.fast-mode-enabled", true);
+        this.fastModeMaxAttempts = config.getInt("performance.fast-mode-max-attempts", 5);
+        this.fastModeSafetyLevel = config.getInt("performance.fast-mode-safety-level", 2);
+        this.parallelChunkLoads = Math.max(1, config.getInt("performance.parallel-chunk-loads", 3));
+        this.parallelChunkLoadsPerWorld = parsePerWorldInts(config, "performance.parallel-chunk-loads-per-world", logger);
+        this.searchThreads = Math.max(1, config.getInt("performance.search-threads", 2));
+        this.maxConcurrentSearches = Math.max(1, config.getInt("performance.max-concurrent-searches", 8));
+        this.searchQueueSize = Math.max(0, config.getInt("performance.search-queue-size", 32));
+        this.virtualSearchThreads = config.getBoolean("performance.virtual-threads", false);
+        this.consoleBatchingEnabled = config.getBoolean("performance.console-batching.enabled", true);
+        this.consoleBatchWindowTicks = Math.max(1, config.getInt("performance.console-batching.window-ticks", 4));
+        this.consoleBatchMaxSize = Math.max(2, config.getInt("performance.console-batching.max-batch-size", 32));
+        this.saveDelayTicks = Math.max(0, config.getInt("performance.save-delay-ticks", 40));
+
+        this.safetyStrictness = config.getInt("safety.strictness", 3);
+        this.maxAttempts = config.getInt("safety.max-attempts", 50);
+
+        this.locationPoolEnabled = config.getBoolean("location-pool.enabled", true);
+        this.locationPoolSize = Math.max(0, config.getInt("location-pool.size", 10));
+        this.locationPoolRefillInterval = config.getInt("location-pool.refill-interval", 40);
+        this.locationPoolRefillPerCycle = Math.max(1, config.getInt("location-pool.refill-per-cycle", 1));
+        this.locationPoolMaxAge = config.getInt("location-pool.max-age", 300);
+        this.locationPoolMaxPerChunk = Math.max(0, config.getInt("location-pool.max-per-chunk", 4));
+
+        this.rejectionCacheEnabled = config.getBoolean("rejection-cache.enabled", true);
+        this.rejectionCacheExpiry = config.getInt("rejection-cache.expiry", 600);
+        this.rejectionCacheChunkThreshold = Math.max(1, config.getInt("rejection-cache.chunk-threshold", 1));
+        this.rejectionCacheMaxEntries = Math.max(1, config.getInt("rejection-cache.max-entries", 50000));
+
+        this.biomeFilterEnabled = config.getBoolean("biome-filter.enabled", true);
+        this.blacklistedBiomeNames = Collections.unmodifiableList(config.getStringList("biome-filter.blacklisted-biomes"));
+        this.biomeFilterMaxEntries = Math.max(1, config.getInt("biome-filter.max-entries", 200000));
+
+        this.loadedChunkSamplingEnabled = config.getBoolean("loaded-chunk-sampling.enabled", false);
+        this.loadedChunkSampleTries = Math.max(1, config.getInt("loaded-chunk-sampling.sample-tries", 16));
+        this.loadedChunkPlayerExclusionRadius = Math.max(0, config.getInt("loaded-chunk-sampling.player-exclusion-radius", 8));
+
+        this.localRefinementEnabled = config.getBoolean("local-refinement.enabled", true);
+        this.localRefinementRadius = Math.max(1, config.getInt("local-refinement.radius", 1));
+        this.localRefinementMaxChunks = Math.max(1, config.getInt("local-refinement.max-chunks", 4));
+
+        this.adaptiveBudgetEnabled = config.getBoolean("adaptive-budget.enabled", true);
+        this.adaptiveMinAttempts = Math.max(1, config.getInt("adaptive-budget.min-attempts", 10));
+        this.adaptiveMaxAttempts = Math.max(1, config.getInt("adaptive-budget.max-attempts", 150));
+        this.adaptiveMaxParallelChunkLoads = Math.max(1, config.getInt("adaptive-budget.max-parallel-chunk-loads", 6));
+        this.adaptiveSmoothing = Math.min(1.0, Math.max(0.01, config.getDouble("adaptive-budget.smoothing", 0.2)));
+        this.adaptiveWarmupSearches = Math.max(0, config.getInt("adaptive-budget.warmup-searches", 5));
+
+        this.updateCheckEnabled = config.getBoolean("general.check-updates", true);
+    }
+
+    /**
+     * Parse a list of "world:value" entries into a map
+     */
+    private static Map<String, Integer> parsePerWorldInts(FileConfiguration config, String path, Logger logger) {
+        Map<String, Integer> values = new HashMap<>();
+        for (String entry : config.getStringList(path)) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                logger.warning("Invalid per-world value in config (" + path + "): " + entry);
+                continue;
+            }
+            try {
+                values.putIfAbsent(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warning("Invalid per-world value in config (" + path + "): " + entry);
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    public List<String> getBlacklistedWorlds() {
+        return blacklistedWorlds;
+    }
+
+    public boolean isWorldBlacklisted(String worldName) {
+        return blacklistedWorldSet.contains(worldName);
+    }
+
+    public int getTeleportDistance() {
+        return teleportDistance;
+    }
+
+    public boolean isCustomTeleportMode() {
+        return customTeleportMode;
+    }
+
+    public int getMinDistanceFromSpawn() {
+        return minDistanceFromSpawn;
+    }
+
+    public AreaSampler.Shape getSamplingShape() {
+        return samplingShape;
+    }
+
+    public int getRectangleZDistance() {
+        return rectangleZDistance;
+    }
+
+    /**
+     * Seconds a custom spot rests after being used before it is picked again (0 = off)
+     */
+    public int getSpotCooldown() {
+        return spotCooldown;
+    }
+
+    /**
+     * Check if custom spots are stored in spots.dat instead of spots.yml
+     */
+    public boolean isBinarySpotStorage() {
+        return binarySpotStorage;
+    }
+
+    public MaterialTable getMaterialTable() {
+        return materialTable;
+    }
+
+    public boolean isCooldownEnabled() {
+        return cooldownEnabled;
+    }
+
+    public int getCooldownMaxUses() {
+        return cooldownMaxUses;
+    }
+
+    public int getCooldownTimeWindow() {
+        return cooldownTimeWindow;
+    }
+
+    public boolean areTitlesEnabled() {
+        return titlesEnabled;
+    }
+
+    public boolean shouldShowTitlesForConsole() {
+        return showTitlesForConsole;
+    }
+
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+
+    public int getDebugLogAttemptInterval() {
+        return debugLogAttemptInterval;
+    }
+
+    public int getDebugTraceBufferSize() {
+        return debugTraceBufferSize;
+    }
+
+    public boolean isAsyncTeleportSearchEnabled() {
+        return asyncTeleportSearchEnabled;
+    }
+
+    public int getMaxSearchTimePerAttempt() {
+        return maxSearchTimePerAttempt;
+    }
+
+    public int getMaxSearchTime() {
+        return maxSearchTime;
+    }
+
+    public boolean isFastModeEnabled() {
+        return fastModeEnabled;
+    }
+
+    public int getFastModeMaxAttempts() {
+        return fastModeMaxAttempts;
+    }
+
+    public int getFastModeSafetyLevel() {
+        return fastModeSafetyLevel;
+    }
+
+    /**
+     * Get the number of parallel chunk loads for a world (per-world override or the global value, at least 1)
+     */
+    public int getParallelChunkLoads(String worldName) {
+        Integer value = parallelChunkLoadsPerWorld.get(worldName);
+        return value != null ? Math.max(1, value) : parallelChunkLoads;
+    }
+
+    /**
+     * Check if parallel-chunk-loads-per-world sets a value for a world
+     */
+    public boolean hasParallelChunkLoadsOverride(String worldName) {
+        return parallelChunkLoadsPerWorld.containsKey(worldName);
+    }
+
+    public int getSearchThreads() {
+        return searchThreads;
+    }
+
+    public int getMaxConcurrentSearches() {
+        return maxConcurrentSearches;
+    }
+
+    public int getSearchQueueSize() {
+        return searchQueueSize;
+    }
+
+    public boolean isVirtualSearchThreads() {
+        return virtualSearchThreads;
+    }
+
+    public boolean isConsoleBatchingEnabled() {
+        return consoleBatchingEnabled;
+    }
+
+    public int getConsoleBatchWindowTicks() {
+        return consoleBatchWindowTicks;
+    }
+
+    public int getConsoleBatchMaxSize() {
+        return consoleBatchMaxSize;
+    }
+
+    /**
+     * Ticks between the first change to spots.yml/centers.yml and the background write that saves it
+     */
+    public int getSaveDelayTicks() {
+        return saveDelayTicks;
+    }
+
+    public int getSafetyStrictness() {
+        return safetyStrictness;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isLocationPoolEnabled() {
+        return locationPoolEnabled;
+    }
+
+    public int getLocationPoolSize() {
+        return locationPoolSize;
+    }
+
+    public int getLocationPoolRefillInterval() {
+        return locationPoolRefillInterval;
+    }
+
+    public int getLocationPoolRefillPerCycle() {
+        return locationPoolRefillPerCycle;
+    }
+
+    public int getLocationPoolMaxAge() {
+        return locationPoolMaxAge;
+    }
+
+    public int getLocationPoolMaxPerChunk() {
+        return locationPoolMaxPerChunk;
+    }
+
+    public boolean isRejectionCacheEnabled() {
+        return rejectionCacheEnabled;
+    }
+
+    public int getRejectionCacheExpiry() {
+        return rejectionCacheExpiry;
+    }
+
+    public int getRejectionCacheChunkThreshold() {
+        return rejectionCacheChunkThreshold;
+    }
+
+    public int getRejectionCacheMaxEntries() {
+        return rejectionCacheMaxEntries;
+    }
+
+    public boolean isBiomeFilterEnabled() {
+        return biomeFilterEnabled;
+    }
+
+    public List<String> getBlacklistedBiomeNames() {
+        return blacklistedBiomeNames;
+    }
+
+    public int getBiomeFilterMaxEntries() {
+        return biomeFilterMaxEntries;
+    }
+
+    public boolean isLoadedChunkSamplingEnabled() {
+        return loadedChunkSamplingEnabled;
+    }
+
+    public int getLoadedChunkSampleTries() {
+        return loadedChunkSampleTries;
+    }
+
+    public int getLoadedChunkPlayerExclusionRadius() {
+        return loadedChunkPlayerExclusionRadius;
+    }
+
+    public boolean isLocalRefinementEnabled() {
+        return localRefinementEnabled;
+    }
+
+    public int getLocalRefinementRadius() {
+        return localRefinementRadius;
+    }
+
+    public int getLocalRefinementMaxChunks() {
+        return localRefinementMaxChunks;
+    }
+
+    public boolean isAdaptiveBudgetEnabled() {
+        return adaptiveBudgetEnabled;
+    }
+
+    public int getAdaptiveMinAttempts() {
+        return adaptiveMinAttempts;
+    }
+
+    public int getAdaptiveMaxAttempts() {
+        return adaptiveMaxAttempts;
+    }
+
+    public int getAdaptiveMaxParallelChunkLoads() {
+        return adaptiveMaxParallelChunkLoads;
+    }
+
+    public double getAdaptiveSmoothing() {
+        return adaptiveSmoothing;
+    }
+
+    public int getAdaptiveWarmupSearches() {
+        return adaptiveWarmupSearches;
+    }
+
+    public boolean isUpdateCheckEnabled() {
+        return updateCheckEnabled;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.mightyrtp.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary storage for custom spots (spots.dat), used with custom-spots.storage: binary.
+ * Layout (big-endian): magic "MRTS", format version, world count, then per world the UTF-8 name (length-prefixed),
+ * the spot count, a flags byte, the packed x/y/z coordinates and - only if any spot has a weight other than 1 - the
+ * weights. Loading reads the file in one go and copies each world's arrays in bulk, so it costs about as much as
+ * reading the bytes, no matter how many spots there are. Holds exactly what spots.yml holds, so both convert without
+ * loss. The file is not memory-mapped: a live mapping locks it on Windows and the next save could not replace it.
+ */
+final class SpotsBinaryFormat {
+
+    private static final int MAGIC = 0x4D525453;
+    private static final int VERSION = 1;
+    private static final byte FLAG_WEIGHTS = 1;
+
+    private SpotsBinaryFormat() {
+    }
+
+    /**
+     * Load every world's spots from a binary spot file
+     * @throws IOException If the file cannot be read, is not a spot file, or is truncated
+     */
+    static Map<String, WorldSpots> read(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        try {
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+                throw new IOException("not a MightyRTP spot file");
+            }
+            int version = buffer.getInt();
+            if (version > VERSION) {
+                throw new IOException("unsupported format version " + version + " (written by a newer MightyRTP)");
+            }
+
+            int worlds = buffer.getInt();
+            Map<String, WorldSpots> spots = new HashMap<>();
+            for (int w = 0; w < worlds; w++) {
+                byte[] name = new byte[checkLength(buffer, buffer.getShort() & 0xFFFF, 1)];
+                buffer.get(name);
+                int count = buffer.getInt();
+                byte flags = buffer.get();
+
+                int[] coords = new int[checkLength(buffer, count, 12) * 3];
+                buffer.asIntBuffer().get(coords);
+                buffer.position(buffer.position() + coords.length * 4);
+
+                double[] weights = new double[count];
+                if ((flags & FLAG_WEIGHTS) != 0) {
+                    checkLength(buffer, count, 8);
+                    buffer.asDoubleBuffer().get(weights);
+                    buffer.position(buffer.position() + count * 8);
+                } else {
+                    Arrays.fill(weights, 1.0);
+                }
+                spots.put(new String(name, StandardCharsets.UTF_8), new WorldSpots(coords, weights));
+            }
+            return spots;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("file is truncated");
+        }
+    }
+
+    /**
+     * Check that a section of count entries of the given size fits into the rest of the file
+     * @return The count
+     */
+    private static int checkLength(ByteBuffer buffer, int count, int entrySize) throws IOException {
+        if (count < 0 || (long) count * entrySize > buffer.remaining()) {
+            throw new IOException("file is truncated or corrupt");
+        }
+        return count;
+    }
+
+    /**
+     * Encode every world's spots in the binary format
+     */
+    static byte[] write(Map<String, WorldSpots> spots) {
+        int size = 12;
+        for (Map.Entry<String, WorldSpots> entry : spots.entrySet()) {
+            WorldSpots worldSpots = entry.getValue();
+            size += 2 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 4 + 1
+                    + worldSpots.size() * 12 + (hasWeights(worldSpots) ? worldSpots.size() * 8 : 0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(spots.size());
+        for (Map.Entry<String, WorldSpots> entry : spots.entrySet()) {
+            WorldSpots worldSpots = entry.getValue();
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            boolean weighted = hasWeights(worldSpots);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            buffer.putInt(worldSpots.size());
+            buffer.put(weighted ? FLAG_WEIGHTS : 0);
+
+            int[] coords = worldSpots.getCoords();
+            buffer.asIntBuffer().put(coords);
+            buffer.position(buffer.position() + coords.length * 4);
+            if (weighted) {
+                double[] weights = worldSpots.getWeights();
+                buffer.asDoubleBuffer().put(weights);
+                buffer.position(buffer.position() + weights.length * 8);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static boolean hasWeights(WorldSpots worldSpots) {
+        for (int i = 0; i < worldSpots.size(); i++) {
+            if (worldSpots.getWeight(i) != 1.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,30 +3,48 @@ package com.example.mightyrtp.managers;
 import com.example.mightyrtp.MightyRTP;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SpotsManager {
     
     private final MightyRTP plugin;
     private FileConfiguration spotsConfig;
     private File spotsFile;
+    private final File binaryFile;
     private final Random random;
+    // Parsed spots per world name; replaced on add, remove and reload
+    private final Map<String, WorldSpots> spots;
+    private final WriteBehindFile yamlWriter;
+    private final WriteBehindFile binaryWriter;
+    // Storage in use (custom-spots.storage); the other file is only touched by import/export
+    private volatile boolean binaryStorage;
+    private volatile boolean loaded;
     
     public SpotsManager(MightyRTP plugin) {
         this.plugin = plugin;
         this.spotsFile = new File(plugin.getDataFolder(), "spots.yml");
+        this.binaryFile = new File(plugin.getDataFolder(), "spots.dat");
         this.random = new Random();
+        this.spots = new ConcurrentHashMap<>();
+        this.yamlWriter = new WriteBehindFile(plugin, spotsFile, this::serializeSpots);
+        this.binaryWriter = new WriteBehindFile(plugin, binaryFile, () -> SpotsBinaryFormat.write(spots));
     }
     
     /**
-     * Load or create the spots.yml file
+     * Load or create the spots file (spots.yml, or spots.dat with custom-spots.storage: binary)
      */
     public void loadSpots() {
         if (!spotsFile.exists()) {
@@ -34,138 +52,290 @@ public class SpotsManager {
             plugin.saveResource("spots.yml", false);
         }
         
-        spotsConfig = YamlConfiguration.loadConfiguration(spotsFile);
+        binaryStorage = plugin.getConfigManager().getSettings().isBinarySpotStorage();
+        // The storage may have been switched to binary while the server was down: spots.yml being newer than
+        // spots.dat means spots were changed in YAML mode since spots.dat was written
+        readSpots(binaryStorage && spotsFile.lastModified() > binaryFile.lastModified());
     }
     
     /**
-     * Reload the spots.yml file
+     * Reload the spots file
      */
     public void reloadSpots() {
+        // Unsaved changes would otherwise be lost (or overwrite the edited file later)
+        flush();
+        boolean wasBinary = binaryStorage;
+        binaryStorage = plugin.getConfigManager().getSettings().isBinarySpotStorage();
+        if (wasBinary && !binaryStorage) {
+            // Switching back to YAML: spots.yml is older than spots.dat, so bring it up to date first
+            yamlWriter.markDirty();
+            yamlWriter.flush();
+        }
+        // Switching to binary: an existing spots.dat misses every change made in YAML mode since, so always convert
+        readSpots(!wasBinary && binaryStorage);
+    }
+    
+    /**
+     * @param convertYaml True to rebuild spots.dat from spots.yml even if spots.dat exists (binary storage only)
+     */
+    private void readSpots(boolean convertYaml) {
+        if (!binaryStorage) {
+            spotsConfig = YamlConfiguration.loadConfiguration(spotsFile);
+            parseSpots();
+        } else if (convertYaml || !binaryFile.exists()) {
+            // Switched to binary storage: convert the current spots.yml
+            spotsConfig = YamlConfiguration.loadConfiguration(spotsFile);
+            parseSpots();
+            plugin.getLogger().info("Converted " + getTotalSpotCount() + " spots from spots.yml to spots.dat");
+            binaryWriter.markDirty();
+        } else {
+            spots.clear();
+            try {
+                spots.putAll(SpotsBinaryFormat.read(binaryFile));
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not load spots.dat: " + e.getMessage() + " (use /rtp-set import to restore the spots from spots.yml)");
+            }
+        }
+        loaded = true;
+    }
+    
+    /**
+     * Replace all spots with the contents of spots.yml and save them to the active storage
+     * @return The number of spots imported
+     */
+    public int importFromYaml() {
+        flush();
         spotsConfig = YamlConfiguration.loadConfiguration(spotsFile);
+        parseSpots();
+        loaded = true;
+        saveSpots();
+        return getTotalSpotCount();
     }
     
     /**
-     * Save the spots.yml file
+     * Write all spots to spots.yml (in the background, like any other save)
+     * @return The number of spots exported
      */
-    public void saveSpots() {
-        try {
-            spotsConfig.save(spotsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save spots.yml: " + e.getMessage());
-            e.printStackTrace();
+    public int exportToYaml() {
+        if (!loaded) {
+            loadSpots();
         }
+        yamlWriter.markDirty();
+        return getTotalSpotCount();
+    }
+    
+    private int getTotalSpotCount() {
+        int total = 0;
+        for (WorldSpots worldSpots : spots.values()) {
+            total += worldSpots.size();
+        }
+        return total;
     }
     
     /**
-     * Add a teleport spot for a world
+     * Parse every world's spot list once into packed arrays (weight defaults to 1)
      */
-    public void addSpot(World world, Location location) {
-        if (spotsConfig == null) {
+    private void parseSpots() {
+        spots.clear();
+        ConfigurationSection section = spotsConfig.getConfigurationSection("spots");
+        if (section == null) {
+            return;
+        }
+        for (String worldName : section.getKeys(false)) {
+            List<?> spotsList = section.getList(worldName, new ArrayList<>());
+            int[] coords = new int[spotsList.size() * 3];
+            double[] weights = new double[spotsList.size()];
+            int length = 0;
+            for (Object spotObj : spotsList) {
+                // List entries come back as maps from YAML, as sections only when built in code
+                Object x;
+                Object y;
+                Object z;
+                Object weight;
+                if (spotObj instanceof Map) {
+                    Map<?, ?> spot = (Map<?, ?>) spotObj;
+                    x = spot.get("x");
+                    y = spot.get("y");
+                    z = spot.get("z");
+                    weight = spot.get("weight");
+                } else if (spotObj instanceof ConfigurationSection) {
+                    ConfigurationSection spot = (ConfigurationSection) spotObj;
+                    x = spot.get("x");
+                    y = spot.get("y");
+                    z = spot.get("z");
+                    weight = spot.get("weight");
+                } else {
+                    continue;
+                }
+                if (!(x instanceof Number) || !(y instanceof Number) || !(z instanceof Number)) {
+                    plugin.getLogger().warning("Skipping invalid spot in spots.yml for world '" + worldName + "': " + spotObj);
+                    continue;
+                }
+                if (weight != null && (!(weight instanceof Number) || ((Number) weight).doubleValue() < 0)) {
+                    plugin.getLogger().warning("Invalid spot weight in spots.yml for world '" + worldName + "': " + weight + " (using 1)");
+                    weight = null;
+                }
+                weights[length / 3] = weight != null ? ((Number) weight).doubleValue() : 1.0;
+                coords[length++] = ((Number) x).intValue();
+                coords[length++] = ((Number) y).intValue();
+                coords[length++] = ((Number) z).intValue();
+            }
+            if (length > 0) {
+                spots.put(worldName, new WorldSpots(Arrays.copyOf(coords, length), Arrays.copyOf(weights, length / 3)));
+            }
+        }
+    }
+    
+    /**
+     * Save the spots file
+     * The write is delayed by performance.save-delay-ticks and done off the main thread, so a burst of changes
+     * is written once
+     */
+    public void saveSpots() {
+        (binaryStorage ? binaryWriter : yamlWriter).markDirty();
+    }
+    
+    /**
+     * Write pending changes to the spots files now (call on plugin disable)
+     */
+    public void flush() {
+        yamlWriter.flush();
+        binaryWriter.flush();
+    }
+    
+    private WorldSpots getWorldSpots(World world) {
+        if (!loaded) {
             loadSpots();
         }
         
-        String worldName = world.getName();
-        List<Location> spots = getSpots(world);
-        
-        // Add the new spot
-        spots.add(location);
+        return spots.getOrDefault(world.getName(), WorldSpots.EMPTY);
+    }
+    
+    /**
+     * Add a teleport spot for a world
+     * @return False if there already is a spot within 1 block
+     */
+    public boolean addSpot(World world, Location location) {
+        return addSpot(world, location, 1.0);
+    }
+    
+    /**
+     * Add a teleport spot for a world
+     * @param weight Relative chance of the spot being picked (1 = normal, 0 = never while other spots have weight)
+     * @return False if there already is a spot within 1 block
+     */
+    public boolean addSpot(World world, Location location, double weight) {
+        WorldSpots current = getWorldSpots(world);
+        if (current.findNear(location.getBlockX(), location.getBlockY(), location.getBlockZ(), 1).length > 0) {
+            return false;
+        }
+        WorldSpots updated = current.with(location.getBlockX(), location.getBlockY(), location.getBlockZ(), weight);
+        spots.put(world.getName(), updated);
         
-        // Save all spots for this world
-        saveSpotsForWorld(world, spots);
+        saveSpots();
+        return true;
     }
     
     /**
      * Get all teleport spots for a world
      */
     public List<Location> getSpots(World world) {
-        if (spotsConfig == null) {
-            loadSpots();
+        WorldSpots worldSpots = getWorldSpots(world);
+        List<Location> locations = new ArrayList<>(worldSpots.size());
+        for (int i = 0; i < worldSpots.size(); i++) {
+            locations.add(worldSpots.toLocation(world, i));
         }
-        
-        String worldName = world.getName();
-        List<Location> spots = new ArrayList<>();
-        
-        List<?> spotsList = spotsConfig.getList("spots." + worldName, new ArrayList<>());
-        for (Object spotObj : spotsList) {
-            if (spotObj instanceof org.bukkit.configuration.ConfigurationSection) {
-                org.bukkit.configuration.ConfigurationSection spot = (org.bukkit.configuration.ConfigurationSection) spotObj;
-                int x = spot.getInt("x");
-                int y = spot.getInt("y");
-                int z = spot.getInt("z");
-                spots.add(new Location(world, x, y, z));
-            }
-        }
-        
-        return spots;
+        return locations;
     }
     
     /**
-     * Get a random teleport spot for a world
+     * Get a random teleport spot for a world, picked by weight
+     * Spots used within the configured spot cooldown are avoided while rested spots are available
      * Returns null if no spots are available
      */
     public Location getRandomSpot(World world) {
-        List<Location> spots = getSpots(world);
+        WorldSpots worldSpots = getWorldSpots(world);
+        long cooldownMillis = plugin.getConfigManager().getSettings().getSpotCooldown() * 1000L;
+        int index = worldSpots.pick(random, System.currentTimeMillis(), cooldownMillis);
         
-        if (spots.isEmpty()) {
+        if (index < 0) {
             return null;
         }
         
-        return spots.get(random.nextInt(spots.size()));
+        return worldSpots.toLocation(world, index);
+    }
+    
+    /**
+     * Get the spot nearest to a location
+     * Returns null if the world has no spots
+     */
+    public Location getNearestSpot(World world, Location location) {
+        WorldSpots worldSpots = getWorldSpots(world);
+        int index = worldSpots.findNearest(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        return index >= 0 ? worldSpots.toLocation(world, index) : null;
+    }
+    
+    /**
+     * Get the spots within a radius of a location, nearest first
+     */
+    public List<Location> getSpotsWithin(World world, Location location, int radius) {
+        WorldSpots worldSpots = getWorldSpots(world);
+        int[] indices = worldSpots.findWithin(location.getBlockX(), location.getBlockY(), location.getBlockZ(), radius);
+        List<Location> locations = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            locations.add(worldSpots.toLocation(world, index));
+        }
+        return locations;
     }
     
     /**
      * Remove a spot at a specific location (within 1 block tolerance)
      */
     public boolean removeSpot(World world, Location location) {
-        if (spotsConfig == null) {
-            loadSpots();
-        }
-        
-        List<Location> spots = getSpots(world);
-        boolean removed = false;
-        
-        // Find and remove spots within 1 block of the location
-        List<Location> toRemove = new ArrayList<>();
-        for (Location spot : spots) {
-            if (spot.getWorld().equals(world) &&
-                Math.abs(spot.getBlockX() - location.getBlockX()) <= 1 &&
-                Math.abs(spot.getBlockY() - location.getBlockY()) <= 1 &&
-                Math.abs(spot.getBlockZ() - location.getBlockZ()) <= 1) {
-                toRemove.add(spot);
-                removed = true;
-            }
+        WorldSpots current = getWorldSpots(world);
+        WorldSpots updated = current.withoutNear(location.getBlockX(), location.getBlockY(), location.getBlockZ(), 1);
+        if (updated == current) {
+            return false;
         }
         
-        spots.removeAll(toRemove);
-        saveSpotsForWorld(world, spots);
-        
-        return removed;
+        spots.put(world.getName(), updated);
+        saveSpots();
+        return true;
     }
     
     /**
      * Get the number of spots for a world
      */
     public int getSpotCount(World world) {
-        return getSpots(world).size();
+        return getWorldSpots(world).size();
     }
     
     /**
-     * Save spots for a specific world
+     * Write the current spots of every world into the YAML document and serialize it
      */
-    private void saveSpotsForWorld(World world, List<Location> spots) {
-        String worldName = world.getName();
-        List<java.util.Map<String, Object>> spotsData = new ArrayList<>();
-        
-        for (Location spot : spots) {
-            java.util.Map<String, Object> spotData = new java.util.HashMap<>();
-            spotData.put("x", spot.getBlockX());
-            spotData.put("y", spot.getBlockY());
-            spotData.put("z", spot.getBlockZ());
-            spotsData.add(spotData);
+    private byte[] serializeSpots() {
+        if (spotsConfig == null) {
+            // Binary storage never needed the YAML document - start from the file to keep its other content
+            spotsConfig = YamlConfiguration.loadConfiguration(spotsFile);
         }
-        
-        spotsConfig.set("spots." + worldName, spotsData);
-        saveSpots();
+        for (Map.Entry<String, WorldSpots> entry : spots.entrySet()) {
+            WorldSpots worldSpots = entry.getValue();
+            List<Map<String, Object>> spotsData = new ArrayList<>(worldSpots.size());
+            
+            for (int i = 0; i < worldSpots.size(); i++) {
+                Map<String, Object> spotData = new LinkedHashMap<>();
+                spotData.put("x", worldSpots.getX(i));
+                spotData.put("y", worldSpots.getY(i));
+                spotData.put("z", worldSpots.getZ(i));
+                // Default weight is left out to keep the file tidy
+                if (worldSpots.getWeight(i) != 1.0) {
+                    spotData.put("weight", worldSpots.getWeight(i));
+                }
+                spotsData.add(spotData);
+            }
+            
+            spotsConfig.set("spots." + entry.getKey(), spotsData);
+        }
+        return spotsConfig.saveToString().getBytes(StandardCharsets.UTF_8);
     }
 }
-
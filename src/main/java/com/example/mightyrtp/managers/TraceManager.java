@@ -0,0 +1,233 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.utils.SearchTrace;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects search trace events into a bounded in-memory ring buffer.
+ * Recording is lock-free and never does I/O; a few selected events (every Nth attempt, results) are echoed to the
+ * console from an async flush task, and the full buffer can be written to a file on demand with /rtp-debug dump.
+ */
+public class TraceManager {
+
+    /**
+     * How often echoed events are written to the console (20 ticks = 1 second)
+     */
+    private static final long FLUSH_INTERVAL_TICKS = 20L;
+
+    /**
+     * Maximum number of echoed events waiting for the next flush; more are dropped
+     */
+    private static final int MAX_PENDING_ECHOES = 256;
+
+    private final MightyRTP plugin;
+    private final AtomicLong nextSearchId;
+    private final Queue<SearchTrace.Event> pendingEchoes;
+    private final AtomicInteger pendingEchoCount;
+    private final AtomicInteger droppedEchoes;
+    private volatile boolean enabled;
+    private volatile int logAttemptInterval;
+    private volatile Ring ring;
+    private BukkitTask flushTask;
+
+    public TraceManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.nextSearchId = new AtomicLong();
+        this.pendingEchoes = new ConcurrentLinkedQueue<>();
+        this.pendingEchoCount = new AtomicInteger();
+        this.droppedEchoes = new AtomicInteger();
+        this.ring = new Ring(1);
+    }
+
+    /**
+     * Apply the current debug settings and start the console flush task
+     */
+    public void start() {
+        stop();
+        reload();
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flushEchoes, FLUSH_INTERVAL_TICKS, FLUSH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stop the flush task, writing out anything still pending
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flushEchoes();
+    }
+
+    /**
+     * Re-read the debug settings (call after the config is reloaded)
+     * The buffer is only reallocated when its size changes
+     */
+    public void reload() {
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        logAttemptInterval = settings.getDebugLogAttemptInterval();
+        if (ring.capacity() != settings.getDebugTraceBufferSize()) {
+            ring = new Ring(settings.getDebugTraceBufferSize());
+        }
+        enabled = settings.isDebugEnabled();
+    }
+
+    /**
+     * Check if search tracing is currently enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Create the trace for a new search (SearchTrace.DISABLED while debug is off)
+     */
+    public SearchTrace newSearch(World world) {
+        if (!enabled) {
+            return SearchTrace.DISABLED;
+        }
+        return new SearchTrace(this, nextSearchId.incrementAndGet(), world.getName(), logAttemptInterval);
+    }
+
+    /**
+     * Record an event (safe to call from any thread)
+     * @param echo true to also write the event to the console on the next flush
+     */
+    public void record(SearchTrace.Event event, boolean echo) {
+        ring.add(event);
+        if (echo) {
+            if (pendingEchoCount.incrementAndGet() > MAX_PENDING_ECHOES) {
+                pendingEchoCount.decrementAndGet();
+                droppedEchoes.incrementAndGet();
+            } else {
+                pendingEchoes.add(event);
+            }
+        }
+    }
+
+    /**
+     * Get the number of events currently held in the buffer
+     */
+    public int getEventCount() {
+        return ring.size();
+    }
+
+    /**
+     * Get the buffer capacity
+     */
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    /**
+     * Drop all buffered events
+     */
+    public void clear() {
+        ring = new Ring(ring.capacity());
+    }
+
+    /**
+     * Write all buffered events (oldest first) to plugins/MightyRTP/debug/ on an async thread
+     * The sender is told the file name on the main thread once the write has finished
+     */
+    public void dump(CommandSender sender) {
+        List<SearchTrace.Event> events = ring.snapshot();
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(new File(plugin.getDataFolder(), "debug"), "trace-" + timestamp + ".log");
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            String message;
+            try {
+                writeEvents(file, events);
+                message = "§a[MightyRTP] Wrote §e" + events.size() + " §atrace events to §e" + file.getPath();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to write trace dump: " + e.getMessage());
+                message = "§c[MightyRTP] Failed to write trace dump: " + e.getMessage();
+            }
+            String result = message;
+            plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(result));
+        });
+    }
+
+    private void writeEvents(File file, List<SearchTrace.Event> events) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (SearchTrace.Event event : events) {
+                writer.write(timeFormat.format(new Date(event.getTimestamp())));
+                writer.write(' ');
+                writer.write(event.format());
+                writer.newLine();
+            }
+        }
+    }
+
+    private void flushEchoes() {
+        SearchTrace.Event event;
+        while ((event = pendingEchoes.poll()) != null) {
+            pendingEchoCount.decrementAndGet();
+            plugin.getLogger().info("[MightyRTP] " + event.format());
+        }
+        int dropped = droppedEchoes.getAndSet(0);
+        if (dropped > 0) {
+            plugin.getLogger().info("[MightyRTP] " + dropped + " trace events not echoed (use /rtp-debug dump for the full trace)");
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer; writers claim a slot with one atomic increment and older events are overwritten
+     */
+    private static class Ring {
+        private final AtomicReferenceArray<SearchTrace.Event> slots;
+        private final AtomicLong written;
+
+        private Ring(int capacity) {
+            this.slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+            this.written = new AtomicLong();
+        }
+
+        private int capacity() {
+            return slots.length();
+        }
+
+        private void add(SearchTrace.Event event) {
+            long index = written.getAndIncrement();
+            slots.set((int) (index % slots.length()), event);
+        }
+
+        private int size() {
+            return (int) Math.min(written.get(), slots.length());
+        }
+
+        private List<SearchTrace.Event> snapshot() {
+            long end = written.get();
+            long start = Math.max(0, end - slots.length());
+            List<SearchTrace.Event> events = new ArrayList<>((int) (end - start));
+            for (long i = start; i < end; i++) {
+                SearchTrace.Event event = slots.get((int) (i % slots.length()));
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the playable area of each world's WorldBorder so searches can clip their sampling area to it from any thread.
+ * The border is re-read on world load and on a short timer, which also picks up borders that grow or shrink over time.
+ */
+public class WorldBorderManager implements Listener {
+
+    /**
+     * How often borders are re-read (100 ticks = 5 seconds)
+     */
+    private static final long REFRESH_INTERVAL_TICKS = 100L;
+
+    /**
+     * Candidates are kept this many blocks inside the border
+     */
+    private static final double BORDER_MARGIN = 8.0;
+
+    private final MightyRTP plugin;
+    private final Map<UUID, Bounds> bounds;
+    private BukkitTask refreshTask;
+
+    public WorldBorderManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.bounds = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Read all borders and start the refresh task
+     */
+    public void start() {
+        stop();
+        refreshAll();
+        refreshTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::refreshAll, REFRESH_INTERVAL_TICKS, REFRESH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stop the refresh task
+     */
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * Get the cached playable area of a world (safe to call from any thread)
+     * @return The bounds, or null if the world's border has not been read yet
+     */
+    public Bounds getBounds(World world) {
+        return bounds.get(world.getUID());
+    }
+
+    private void refreshAll() {
+        for (World world : plugin.getServer().getWorlds()) {
+            refresh(world);
+        }
+    }
+
+    private void refresh(World world) {
+        WorldBorder border = world.getWorldBorder();
+        Location center = border.getCenter();
+        double radius = Math.max(0, border.getSize() / 2 - BORDER_MARGIN);
+        Bounds current = bounds.get(world.getUID());
+        if (current == null || !current.matches(center.getX(), center.getZ(), radius)) {
+            bounds.put(world.getUID(), new Bounds(center.getX(), center.getZ(), radius));
+        }
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        refresh(event.getWorld());
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        bounds.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Immutable square playable area of a world border (already shrunk by the safety margin)
+     */
+    public static final class Bounds {
+        private final double centerX;
+        private final double centerZ;
+        private final double radius;
+
+        private Bounds(double centerX, double centerZ, double radius) {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+        }
+
+        private boolean matches(double otherCenterX, double otherCenterZ, double otherRadius) {
+            return centerX == otherCenterX && centerZ == otherCenterZ && radius == otherRadius;
+        }
+
+        public double getMinX() {
+            return centerX - radius;
+        }
+
+        public double getMaxX() {
+            return centerX + radius;
+        }
+
+        public double getMinZ() {
+            return centerZ - radius;
+        }
+
+        public double getMaxZ() {
+            return centerZ + radius;
+        }
+    }
+}
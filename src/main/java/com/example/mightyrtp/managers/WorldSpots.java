@@ -0,0 +1,610 @@
+package com.example.mightyrtp.managers;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Snapshot of one world's custom spots, packed as x/y/z triples in a single int array plus a weight per spot.
+ * Spots are parsed once and the snapshot is replaced as a whole on add, remove or reload; the alias table for
+ * weighted picks is rebuilt with it, while add and remove carry the recency list and the spatial grid over from the
+ * previous snapshot instead of sorting again. Picking a spot is O(1) and position queries (duplicates, removal,
+ * nearest, radius) only look at the grid cells around the position.
+ * Only the usage state (last use, recency order) changes after construction and is guarded by this.
+ */
+final class WorldSpots {
+
+    static final WorldSpots EMPTY = new WorldSpots(new int[0], new double[0]);
+
+    /**
+     * Weighted draws that hit a resting spot are repeated this often before the least recently used spot with weight
+     * is taken
+     */
+    private static final int COOLDOWN_RETRIES = 8;
+
+    /**
+     * Grid cells are 64x64 blocks on X/Z
+     */
+    private static final int CELL_SHIFT = 6;
+
+    /**
+     * Largest radius for findWithin
+     */
+    static final int MAX_RADIUS = 16384;
+
+    private final int[] coords;
+    private final double[] weights;
+
+    // Alias table (Vose): column i keeps spot i with probability aliasChance[i], otherwise yields aliasIndex[i]
+    private final double[] aliasChance;
+    private final int[] aliasIndex;
+
+    // Spatial grid: sorted occupied cell keys, and the spot indices of cell i at cellSpots[cellStart[i]..cellStart[i + 1])
+    private long[] cellKeys;
+    private int[] cellStart;
+    private int[] cellSpots;
+    private int minCellX;
+    private int maxCellX;
+    private int minCellZ;
+    private int maxCellZ;
+
+    // Usage state: last pick time per spot and a doubly linked recency list (head = least recently used)
+    private final long[] lastUsed;
+    private final int[] previous;
+    private final int[] next;
+    private int head;
+    private int tail;
+
+    /**
+     * Fresh snapshot (load, reload, import) - no spot has been used yet, so the recency list is in index order
+     */
+    WorldSpots(int[] coords, double[] weights) {
+        this(coords, weights, new long[weights.length], new int[weights.length], new int[weights.length]);
+        int size = weights.length;
+        for (int i = 0; i < size; i++) {
+            previous[i] = i - 1;
+            next[i] = i < size - 1 ? i + 1 : -1;
+        }
+        head = size > 0 ? 0 : -1;
+        tail = size - 1;
+        buildGrid();
+    }
+
+    /**
+     * Snapshot with the given usage state; the caller links the recency list and fills the grid
+     */
+    private WorldSpots(int[] coords, double[] weights, long[] lastUsed, int[] previous, int[] next) {
+        this.coords = coords;
+        this.weights = weights;
+        int size = weights.length;
+        this.aliasChance = new double[size];
+        this.aliasIndex = new int[size];
+        this.lastUsed = lastUsed;
+        this.previous = previous;
+        this.next = next;
+        buildAliasTable();
+    }
+
+    private void buildAliasTable() {
+        int size = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        if (total <= 0) {
+            // All spots disabled by weight 0 - fall back to picking them evenly
+            Arrays.fill(aliasChance, 1.0);
+            for (int i = 0; i < size; i++) {
+                aliasIndex[i] = i;
+            }
+            return;
+        }
+
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            aliasChance[less] = scaled[less];
+            aliasIndex[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Leftovers are 1.0 up to rounding
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            aliasChance[index] = 1.0;
+            aliasIndex[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            aliasChance[index] = 1.0;
+            aliasIndex[index] = index;
+        }
+    }
+
+    private void buildGrid() {
+        int size = weights.length;
+        long[] keys = new long[size];
+        minCellX = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        minCellZ = Integer.MAX_VALUE;
+        maxCellZ = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int cellX = getX(i) >> CELL_SHIFT;
+            int cellZ = getZ(i) >> CELL_SHIFT;
+            keys[i] = cellKey(cellX, cellZ);
+            minCellX = Math.min(minCellX, cellX);
+            maxCellX = Math.max(maxCellX, cellX);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+
+        // Unique occupied cells in sorted order, so a cell is found by binary search
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int cells = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[cells++] = sorted[i];
+            }
+        }
+        cellKeys = Arrays.copyOf(sorted, cells);
+
+        // Counting sort of the spots by cell
+        int[] cellOfSpot = new int[size];
+        cellStart = new int[cells + 1];
+        for (int i = 0; i < size; i++) {
+            cellOfSpot[i] = Arrays.binarySearch(cellKeys, keys[i]);
+            cellStart[cellOfSpot[i] + 1]++;
+        }
+        for (int i = 0; i < cells; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        cellSpots = new int[size];
+        for (int i = 0; i < size; i++) {
+            cellSpots[fill[cellOfSpot[i]]++] = i;
+        }
+    }
+
+    /**
+     * Fill the grid from a source snapshot's grid plus one spot (the source's cell keys are shared, never modified)
+     */
+    private void buildGridWith(WorldSpots source, int index) {
+        int cellX = getX(index) >> CELL_SHIFT;
+        int cellZ = getZ(index) >> CELL_SHIFT;
+        long key = cellKey(cellX, cellZ);
+        int cells = source.cellKeys.length;
+        int cell = Arrays.binarySearch(source.cellKeys, key);
+        if (cell >= 0) {
+            cellKeys = source.cellKeys;
+            cellStart = new int[cells + 1];
+            for (int i = 0; i <= cells; i++) {
+                cellStart[i] = source.cellStart[i] + (i > cell ? 1 : 0);
+            }
+        } else {
+            // New occupied cell, inserted in key order
+            cell = -cell - 1;
+            cellKeys = new long[cells + 1];
+            System.arraycopy(source.cellKeys, 0, cellKeys, 0, cell);
+            cellKeys[cell] = key;
+            System.arraycopy(source.cellKeys, cell, cellKeys, cell + 1, cells - cell);
+            cellStart = new int[cells + 2];
+            for (int i = 0; i <= cells + 1; i++) {
+                cellStart[i] = i <= cell ? source.cellStart[i] : source.cellStart[i - 1] + 1;
+            }
+        }
+        // The spot goes at the end of its cell
+        int position = cellStart[cell + 1] - 1;
+        int[] sourceSpots = source.cellSpots;
+        cellSpots = new int[sourceSpots.length + 1];
+        System.arraycopy(sourceSpots, 0, cellSpots, 0, position);
+        cellSpots[position] = index;
+        System.arraycopy(sourceSpots, position, cellSpots, position + 1, sourceSpots.length - position);
+        minCellX = Math.min(source.minCellX, cellX);
+        maxCellX = Math.max(source.maxCellX, cellX);
+        minCellZ = Math.min(source.minCellZ, cellZ);
+        maxCellZ = Math.max(source.maxCellZ, cellZ);
+    }
+
+    /**
+     * Fill the grid from a source snapshot's grid, keeping only the spots that have a new index
+     * @param newIndex New index per source spot, or -1 if the spot was removed
+     */
+    private void buildGridWithout(WorldSpots source, int[] newIndex) {
+        int cells = source.cellKeys.length;
+        long[] keptKeys = new long[cells];
+        int[] keptStart = new int[cells + 1];
+        cellSpots = new int[weights.length];
+        minCellX = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        minCellZ = Integer.MAX_VALUE;
+        maxCellZ = Integer.MIN_VALUE;
+        int keptCells = 0;
+        int keptSpots = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int first = keptSpots;
+            for (int i = source.cellStart[cell]; i < source.cellStart[cell + 1]; i++) {
+                int index = newIndex[source.cellSpots[i]];
+                if (index >= 0) {
+                    cellSpots[keptSpots++] = index;
+                }
+            }
+            if (keptSpots == first) {
+                // Cell became empty
+                continue;
+            }
+            long key = source.cellKeys[cell];
+            keptKeys[keptCells] = key;
+            keptStart[++keptCells] = keptSpots;
+            int cellX = (int) (key >> 32);
+            int cellZ = (int) key;
+            minCellX = Math.min(minCellX, cellX);
+            maxCellX = Math.max(maxCellX, cellX);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+        cellKeys = Arrays.copyOf(keptKeys, keptCells);
+        cellStart = Arrays.copyOf(keptStart, keptCells + 1);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Call the consumer for every spot in one grid cell
+     */
+    private void visitCell(int cellX, int cellZ, IntConsumer consumer) {
+        int cell = Arrays.binarySearch(cellKeys, cellKey(cellX, cellZ));
+        if (cell < 0) {
+            return;
+        }
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            consumer.accept(cellSpots[i]);
+        }
+    }
+
+    /**
+     * Call the consumer for every spot in the grid cells overlapping a block range on X/Z
+     */
+    private void visitRange(int minX, int maxX, int minZ, int maxZ, IntConsumer consumer) {
+        int fromX = Math.max(minX >> CELL_SHIFT, minCellX);
+        int toX = Math.min(maxX >> CELL_SHIFT, maxCellX);
+        int fromZ = Math.max(minZ >> CELL_SHIFT, minCellZ);
+        int toZ = Math.min(maxZ >> CELL_SHIFT, maxCellZ);
+        for (int cellX = fromX; cellX <= toX; cellX++) {
+            for (int cellZ = fromZ; cellZ <= toZ; cellZ++) {
+                visitCell(cellX, cellZ, consumer);
+            }
+        }
+    }
+
+    private long distanceSquared(int index, int x, int y, int z) {
+        long dx = getX(index) - x;
+        long dy = getY(index) - y;
+        long dz = getZ(index) - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Find the spots within a tolerance (per axis) of a position, e.g. to detect duplicates
+     */
+    int[] findNear(int x, int y, int z, int tolerance) {
+        IndexList found = new IndexList();
+        visitRange(x - tolerance, x + tolerance, z - tolerance, z + tolerance, index -> {
+            if (Math.abs(getX(index) - x) <= tolerance
+                    && Math.abs(getY(index) - y) <= tolerance
+                    && Math.abs(getZ(index) - z) <= tolerance) {
+                found.add(index);
+            }
+        });
+        return found.toArray();
+    }
+
+    /**
+     * Find the spots within a radius of a position, nearest first
+     * @param radius Search radius in blocks, capped at MAX_RADIUS
+     */
+    int[] findWithin(int x, int y, int z, int radius) {
+        radius = Math.min(radius, MAX_RADIUS);
+        long radiusSquared = (long) radius * radius;
+        IndexList found = new IndexList();
+        visitRange(x - radius, x + radius, z - radius, z + radius, index -> {
+            if (distanceSquared(index, x, y, z) <= radiusSquared) {
+                found.add(index);
+            }
+        });
+        int[] indices = found.toArray();
+        // Sort by distance through packed (distance << 32 | index) keys; the radius cap keeps distances below 2^31
+        long[] packed = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            packed[i] = (distanceSquared(indices[i], x, y, z) << 32) | indices[i];
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < packed.length; i++) {
+            indices[i] = (int) packed[i];
+        }
+        return indices;
+    }
+
+    /**
+     * Find the spot nearest to a position
+     * Searches grid rings outward until no closer spot can exist; falls back to a plain scan when the spots are
+     * spread so thinly that walking the rings would visit more cells than there are spots
+     * @return The spot index, or -1 if there are no spots
+     */
+    int findNearest(int x, int y, int z) {
+        if (isEmpty()) {
+            return -1;
+        }
+        int centerX = x >> CELL_SHIFT;
+        int centerZ = z >> CELL_SHIFT;
+        int maxRing = Math.max(Math.max(Math.abs(centerX - minCellX), Math.abs(maxCellX - centerX)),
+                Math.max(Math.abs(centerZ - minCellZ), Math.abs(maxCellZ - centerZ)));
+        long[] best = {Long.MAX_VALUE, -1};
+        IntConsumer closest = index -> {
+            long distance = distanceSquared(index, x, y, z);
+            if (distance < best[0]) {
+                best[0] = distance;
+                best[1] = index;
+            }
+        };
+
+        long visited = 0;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every spot in this ring is at least (ring - 1) cells away horizontally
+            long minDistance = (long) Math.max(0, ring - 1) << CELL_SHIFT;
+            if (best[1] >= 0 && minDistance * minDistance > best[0]) {
+                break;
+            }
+            visited += ring == 0 ? 1 : 8L * ring;
+            if (visited > size()) {
+                for (int i = 0; i < size(); i++) {
+                    closest.accept(i);
+                }
+                break;
+            }
+            for (int dx = -ring; dx <= ring; dx++) {
+                visitCell(centerX + dx, centerZ - ring, closest);
+                if (ring > 0) {
+                    visitCell(centerX + dx, centerZ + ring, closest);
+                }
+            }
+            for (int dz = -ring + 1; dz <= ring - 1; dz++) {
+                visitCell(centerX - ring, centerZ + dz, closest);
+                visitCell(centerX + ring, centerZ + dz, closest);
+            }
+        }
+        return (int) best[1];
+    }
+
+    int size() {
+        return weights.length;
+    }
+
+    boolean isEmpty() {
+        return weights.length == 0;
+    }
+
+    int getX(int index) {
+        return coords[index * 3];
+    }
+
+    int getY(int index) {
+        return coords[index * 3 + 1];
+    }
+
+    int getZ(int index) {
+        return coords[index * 3 + 2];
+    }
+
+    double getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Get the packed x/y/z coordinates (shared with this snapshot, must not be modified)
+     */
+    int[] getCoords() {
+        return coords;
+    }
+
+    /**
+     * Get the weight of every spot (shared with this snapshot, must not be modified)
+     */
+    double[] getWeights() {
+        return weights;
+    }
+
+    Location toLocation(World world, int index) {
+        return new Location(world, getX(index), getY(index), getZ(index));
+    }
+
+    /**
+     * Pick a spot by weight and mark it as used
+     * With a cooldown, spots used less than cooldownMillis ago are re-drawn a few times and then replaced by the
+     * spot with weight that has rested longest, so players spread out instead of piling up on a few favourites
+     * @return The spot index, or -1 if there are no spots
+     */
+    synchronized int pick(Random random, long now, long cooldownMillis) {
+        if (isEmpty()) {
+            return -1;
+        }
+        int index = sample(random);
+        if (cooldownMillis > 0) {
+            for (int i = 0; i < COOLDOWN_RETRIES && now - lastUsed[index] < cooldownMillis; i++) {
+                index = sample(random);
+            }
+            if (now - lastUsed[index] < cooldownMillis) {
+                int rested = leastRecentlyUsedWithWeight();
+                // Nothing rested longer than the last draw: keep the weighted sample
+                if (rested >= 0 && lastUsed[rested] < lastUsed[index]) {
+                    index = rested;
+                }
+            }
+        }
+        lastUsed[index] = now;
+        moveToTail(index);
+        return index;
+    }
+
+    /**
+     * Walk the recency list from the least recently used spot to the first one with a non-zero weight
+     * (weight 0 spots are never picked while other spots have weight)
+     * @return The spot index, or -1 if no spot has weight
+     */
+    private int leastRecentlyUsedWithWeight() {
+        for (int index = head; index >= 0; index = next[index]) {
+            if (weights[index] > 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int sample(Random random) {
+        int column = random.nextInt(aliasChance.length);
+        return random.nextDouble() < aliasChance[column] ? column : aliasIndex[column];
+    }
+
+    private void moveToTail(int index) {
+        if (index == tail) {
+            return;
+        }
+        // Unlink (index is not the tail, so next[index] exists)
+        if (previous[index] >= 0) {
+            next[previous[index]] = next[index];
+        } else {
+            head = next[index];
+        }
+        previous[next[index]] = previous[index];
+        // Append
+        previous[index] = tail;
+        next[index] = -1;
+        next[tail] = index;
+        tail = index;
+    }
+
+    /**
+     * Get a copy with one more spot at the end (usage of the existing spots is kept)
+     */
+    synchronized WorldSpots with(int x, int y, int z, double weight) {
+        int size = weights.length;
+        int[] addedCoords = Arrays.copyOf(coords, coords.length + 3);
+        addedCoords[coords.length] = x;
+        addedCoords[coords.length + 1] = y;
+        addedCoords[coords.length + 2] = z;
+        double[] addedWeights = Arrays.copyOf(weights, size + 1);
+        addedWeights[size] = weight;
+        WorldSpots added = new WorldSpots(addedCoords, addedWeights, Arrays.copyOf(lastUsed, size + 1),
+                Arrays.copyOf(previous, size + 1), Arrays.copyOf(next, size + 1));
+
+        // The new spot has never been used, so it goes to the head of the recency list
+        added.previous[size] = -1;
+        added.next[size] = head;
+        if (head >= 0) {
+            added.previous[head] = size;
+        }
+        added.head = size;
+        added.tail = tail >= 0 ? tail : size;
+        added.buildGridWith(this, size);
+        return added;
+    }
+
+    /**
+     * Get a copy without the spots within a tolerance (per axis) of a position
+     * @return This snapshot if nothing matched
+     */
+    synchronized WorldSpots withoutNear(int x, int y, int z, int tolerance) {
+        int[] matched = findNear(x, y, z, tolerance);
+        if (matched.length == 0) {
+            return this;
+        }
+        boolean[] removed = new boolean[weights.length];
+        for (int index : matched) {
+            removed[index] = true;
+        }
+
+        int size = weights.length;
+        int kept = size - matched.length;
+        int[] keptCoords = new int[kept * 3];
+        double[] keptWeights = new double[kept];
+        long[] keptUsed = new long[kept];
+        int[] newIndex = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                newIndex[i] = -1;
+                continue;
+            }
+            System.arraycopy(coords, i * 3, keptCoords, count * 3, 3);
+            keptWeights[count] = weights[i];
+            keptUsed[count] = lastUsed[i];
+            newIndex[i] = count++;
+        }
+        WorldSpots remaining = new WorldSpots(keptCoords, keptWeights, keptUsed, new int[kept], new int[kept]);
+
+        // Relink the recency list in its current order, skipping the removed spots
+        int last = -1;
+        for (int index = head; index >= 0; index = next[index]) {
+            int mapped = newIndex[index];
+            if (mapped < 0) {
+                continue;
+            }
+            remaining.previous[mapped] = last;
+            if (last >= 0) {
+                remaining.next[last] = mapped;
+            } else {
+                remaining.head = mapped;
+            }
+            last = mapped;
+        }
+        if (last >= 0) {
+            remaining.next[last] = -1;
+        } else {
+            remaining.head = -1;
+        }
+        remaining.tail = last;
+        remaining.buildGridWithout(this, newIndex);
+        return remaining;
+    }
+
+    /**
+     * Growable list of spot indices for query results
+     */
+    private static final class IndexList {
+        private int[] indices = new int[8];
+        private int size;
+
+        private void add(int index) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(indices, size);
+        }
+    }
+}
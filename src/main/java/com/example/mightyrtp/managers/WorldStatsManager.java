@@ -0,0 +1,218 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks per-world search statistics and derives each world's search budget from them.
+ * Keeps an EWMA of the success rate and of the attempts a successful search needed, plus counters of why candidates
+ * were rejected. Easy worlds get a smaller attempt budget, fewer parallel chunk loads and fast mode; hard worlds
+ * (Nether, End, ocean seeds) get more attempts and loads and the thorough mode, always within the configured bounds.
+ */
+public class WorldStatsManager {
+
+    /**
+     * Budget headroom over the average attempts to success, so ordinary bad luck does not fail a search
+     */
+    private static final double ATTEMPT_HEADROOM = 3.0;
+
+    /**
+     * Below this success rate a world always gets the maximum attempt budget
+     */
+    private static final double HARD_WORLD_SUCCESS_RATE = 0.5;
+
+    /**
+     * Fast mode is only kept on worlds with at least this success rate
+     */
+    private static final double FAST_MODE_SUCCESS_RATE = 0.9;
+
+    private final MightyRTP plugin;
+    private final Map<UUID, WorldStats> stats;
+
+    public WorldStatsManager(MightyRTP plugin) {
+        this.plugin = plugin;
+        this.stats = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Forget all statistics (e.g. after the search settings changed)
+     */
+    public void clear() {
+        stats.clear();
+    }
+
+    /**
+     * Record a search that found a location
+     * @param attempts Attempts used up to the successful candidate
+     */
+    public void recordSuccess(World world, int attempts) {
+        getStats(world).record(true, attempts, plugin.getConfigManager().getSettings().getAdaptiveSmoothing());
+    }
+
+    /**
+     * Record a search that ran out of attempts or time
+     */
+    public void recordFailure(World world, int attempts) {
+        getStats(world).record(false, attempts, plugin.getConfigManager().getSettings().getAdaptiveSmoothing());
+    }
+
+    /**
+     * Count one rejected or skipped candidate by reason
+     */
+    public void recordRejection(World world, String reason) {
+        getStats(world).countRejection(reason);
+    }
+
+    /**
+     * Get the search budget for a world: the static settings while adaptation is off or still warming up,
+     * otherwise values tuned from the statistics within the configured bounds
+     */
+    public Budget getBudget(World world, RtpSettings settings) {
+        int staticParallel = settings.getParallelChunkLoads(world.getName());
+        boolean staticFast = settings.isFastModeEnabled();
+        int staticAttempts = staticFast ? Math.min(settings.getMaxAttempts(), settings.getFastModeMaxAttempts()) : settings.getMaxAttempts();
+
+        WorldStats worldStats = stats.get(world.getUID());
+        if (!settings.isAdaptiveBudgetEnabled() || worldStats == null || worldStats.getSamples() < settings.getAdaptiveWarmupSearches()) {
+            return new Budget(staticAttempts, staticParallel, staticFast);
+        }
+
+        double successRate = worldStats.getSuccessRate();
+        double averageAttempts = worldStats.getAverageAttempts();
+        int minAttempts = settings.getAdaptiveMinAttempts();
+        int maxAttempts = Math.max(minAttempts, settings.getAdaptiveMaxAttempts());
+
+        int attempts = successRate < HARD_WORLD_SUCCESS_RATE
+                ? maxAttempts
+                : clamp((int) Math.ceil(averageAttempts * ATTEMPT_HEADROOM / successRate), minAttempts, maxAttempts);
+        // Keep roughly one chunk load per expected attempt in flight, so hard worlds find a spot in one round trip;
+        // a per-world override is an operator limit that adaptation may lower but never raise
+        int maxParallel = settings.getAdaptiveMaxParallelChunkLoads();
+        if (settings.hasParallelChunkLoadsOverride(world.getName())) {
+            maxParallel = Math.min(staticParallel, maxParallel);
+        }
+        int parallel = clamp((int) Math.ceil(averageAttempts / successRate), 1, maxParallel);
+        // Fast mode skips checks, which only pays off where almost every candidate succeeds anyway
+        boolean fast = staticFast && successRate >= FAST_MODE_SUCCESS_RATE && averageAttempts <= settings.getFastModeMaxAttempts();
+        return new Budget(attempts, parallel, fast);
+    }
+
+    /**
+     * Get a one-line summary per world that has statistics (for /rtp-debug)
+     */
+    public List<String> describe(RtpSettings settings) {
+        List<String> lines = new ArrayList<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            WorldStats worldStats = stats.get(world.getUID());
+            if (worldStats == null) {
+                continue;
+            }
+            Budget budget = getBudget(world, settings);
+            lines.add(world.getName() + ": " + worldStats.getSamples() + " searches, "
+                    + Math.round(worldStats.getSuccessRate() * 100) + "% success, "
+                    + String.format("%.1f", worldStats.getAverageAttempts()) + " attempts avg -> budget "
+                    + budget.getMaxAttempts() + " attempts, " + budget.getParallelChunkLoads() + " parallel, "
+                    + (budget.isFastMode() ? "fast" : "normal") + " mode"
+                    + worldStats.describeRejections());
+        }
+        return lines;
+    }
+
+    private WorldStats getStats(World world) {
+        return stats.computeIfAbsent(world.getUID(), id -> new WorldStats());
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Attempt budget, chunk-load concurrency and mode for one search
+     */
+    public static final class Budget {
+        private final int maxAttempts;
+        private final int parallelChunkLoads;
+        private final boolean fastMode;
+
+        private Budget(int maxAttempts, int parallelChunkLoads, boolean fastMode) {
+            this.maxAttempts = maxAttempts;
+            this.parallelChunkLoads = parallelChunkLoads;
+            this.fastMode = fastMode;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public int getParallelChunkLoads() {
+            return parallelChunkLoads;
+        }
+
+        public boolean isFastMode() {
+            return fastMode;
+        }
+    }
+
+    private static final class WorldStats {
+        // Guarded by this
+        private long samples;
+        private double successRate;
+        private double averageAttempts;
+        private final Map<String, Long> rejections = new HashMap<>();
+
+        private synchronized void record(boolean success, int attempts, double smoothing) {
+            if (samples == 0) {
+                successRate = success ? 1.0 : 0.0;
+                averageAttempts = Math.max(1, attempts);
+            } else {
+                successRate += smoothing * ((success ? 1.0 : 0.0) - successRate);
+                // Failed searches say nothing about the attempts a success needs
+                if (success) {
+                    averageAttempts += smoothing * (Math.max(1, attempts) - averageAttempts);
+                }
+            }
+            samples++;
+        }
+
+        private synchronized void countRejection(String reason) {
+            rejections.merge(reason, 1L, Long::sum);
+        }
+
+        private synchronized long getSamples() {
+            return samples;
+        }
+
+        private synchronized double getSuccessRate() {
+            // Never exactly 0 so budget formulas stay finite
+            return Math.max(0.01, successRate);
+        }
+
+        private synchronized double getAverageAttempts() {
+            return averageAttempts;
+        }
+
+        private synchronized String describeRejections() {
+            if (rejections.isEmpty()) {
+                return "";
+            }
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(rejections.entrySet());
+            entries.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+            StringBuilder builder = new StringBuilder(" (top rejections: ");
+            for (int i = 0; i < Math.min(3, entries.size()); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(entries.get(i).getKey()).append(' ').append(entries.get(i).getValue());
+            }
+            return builder.append(')').toString();
+        }
+    }
+}
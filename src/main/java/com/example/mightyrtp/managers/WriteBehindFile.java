@@ -0,0 +1,105 @@
+package com.example.mightyrtp.managers;
+
+import com.example.mightyrtp.MightyRTP;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for one data file (spots.yml, spots.dat, centers.yml).
+ * Changes only mark the file dirty; once the save delay after the first change has passed, the content is serialized
+ * once on the main thread for all changes of that window and written on an async thread. Every write goes to a
+ * temp file that is then moved over the target, so a crash mid-write never leaves a truncated file.
+ * markDirty() and flush() must be called on the main thread.
+ */
+final class WriteBehindFile {
+
+    private final MightyRTP plugin;
+    private final File file;
+    private final Supplier<byte[]> serializer;
+
+    // Main thread only
+    private BukkitTask pending;
+    private long sequence;
+
+    // Guarded by this: last sequence written, so an older async write never replaces a newer one, and the content
+    // handed to an async write that has not run yet (Bukkit drops queued tasks on disable, so flush() writes it)
+    private long written;
+    private byte[] queued;
+    private long queuedSequence;
+
+    /**
+     * @param serializer Produces the file content; called on the main thread
+     */
+    WriteBehindFile(MightyRTP plugin, File file, Supplier<byte[]> serializer) {
+        this.plugin = plugin;
+        this.file = file;
+        this.serializer = serializer;
+    }
+
+    /**
+     * Schedule a write (changes made until the write starts are included)
+     */
+    void markDirty() {
+        if (pending != null) {
+            return;
+        }
+        long delay = plugin.getConfigManager().getSettings().getSaveDelayTicks();
+        pending = plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            pending = null;
+            byte[] content = serializer.get();
+            long current = ++sequence;
+            synchronized (this) {
+                queued = content;
+                queuedSequence = current;
+            }
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> write(content, current));
+        }, delay);
+    }
+
+    /**
+     * Write pending changes right away on the calling thread (before a reload and on plugin disable)
+     */
+    void flush() {
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+            write(serializer.get(), ++sequence);
+            return;
+        }
+        synchronized (this) {
+            if (queued != null) {
+                write(queued, queuedSequence);
+            }
+        }
+    }
+
+    private synchronized void write(byte[] content, long current) {
+        if (current <= written) {
+            return;
+        }
+        written = current;
+        if (current >= queuedSequence) {
+            queued = null;
+        }
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save " + file.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.mightyrtp.utils;
+
+import com.example.mightyrtp.managers.WorldBorderManager;
+
+import java.util.Random;
+
+/**
+ * Draws uniformly distributed candidate coordinates from the area between min-distance and teleport-distance.
+ * Every draw lands inside the area, so no attempt is ever spent on a sample that is thrown away.
+ * Circles use the inverse CDF of the annulus (r = sqrt(U * (R² - r²) + r²)); squares and rectangles are split into
+ * four strips that are picked by area and then sampled uniformly.
+ * When a world border is given, strips are intersected with it exactly. Circles crossing the border are sampled by
+ * rejection: draws alternate between the circle's bounding box intersected with the border (good when the border cuts
+ * most of the circle away) and the annulus trimmed to the border's farthest corner (good when the hole covers most of
+ * the border), and only points inside both the annulus and the border are kept - nothing is clamped onto the edge.
+ */
+public final class AreaSampler {
+
+    public enum Shape {
+        CIRCLE,
+        SQUARE,
+        RECTANGLE;
+
+        /**
+         * Parse a shape name from config
+         * @return The shape, or null if the name is not valid
+         */
+        public static Shape fromName(String name) {
+            if (name == null) {
+                return null;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Rejection rounds (one box and one annulus draw each) for circles clipped by a border; even when the intersection
+     * is only a few percent of both regions (a hole that leaves just the border's corners) all of them miss less than
+     * once in a million draws
+     */
+    private static final int CLIP_ROUNDS = 256;
+
+    private final Shape shape;
+    private final int centerX;
+    private final int centerZ;
+    private final double outerX;
+    private final double outerZ;
+    private final double innerX;
+    private final double innerZ;
+
+    // Clip box relative to the center (infinite when there is no border)
+    private final double clipMinX;
+    private final double clipMaxX;
+    private final double clipMinZ;
+    private final double clipMaxZ;
+    private final boolean clipped;
+    // True when the area is sampled as the clip box itself (area unbounded or entirely outside the border)
+    private final boolean wholeBorder;
+
+    // Clipped circle: bounding box of the circle intersected with the clip box, and the outer radius trimmed to the
+    // farthest corner of that box
+    private final double boxMinX;
+    private final double boxMaxX;
+    private final double boxMinZ;
+    private final double boxMaxZ;
+    private final double trimmedOuter;
+
+    // Square/rectangle (and whole border): strips relative to the center and their cumulative areas
+    private final double[] stripMinX;
+    private final double[] stripMaxX;
+    private final double[] stripMinZ;
+    private final double[] stripMaxZ;
+    private final double[] cumulativeArea;
+
+    /**
+     * @param outerX Half-size of the area along X (radius for circles)
+     * @param outerZ Half-size of the area along Z (ignored for circles and squares)
+     * @param innerDistance Size of the excluded hole around the center along X; the hole has the same shape as the area
+     */
+    public AreaSampler(Shape shape, int centerX, int centerZ, double outerX, double outerZ, double innerDistance) {
+        this(shape, centerX, centerZ, outerX, outerZ, innerDistance, null);
+    }
+
+    /**
+     * Same as above, with the area intersected with a world border
+     * A non-positive outerX samples the whole border; so does an area that lies completely outside the border
+     * @param border The playable area of the world, or null for no clipping
+     */
+    public AreaSampler(Shape shape, int centerX, int centerZ, double outerX, double outerZ, double innerDistance,
+                       WorldBorderManager.Bounds border) {
+        this.shape = shape;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+
+        if (border != null) {
+            this.clipMinX = border.getMinX() - centerX;
+            this.clipMaxX = border.getMaxX() - centerX;
+            this.clipMinZ = border.getMinZ() - centerZ;
+            this.clipMaxZ = border.getMaxZ() - centerZ;
+        } else {
+            this.clipMinX = Double.NEGATIVE_INFINITY;
+            this.clipMaxX = Double.POSITIVE_INFINITY;
+            this.clipMinZ = Double.NEGATIVE_INFINITY;
+            this.clipMaxZ = Double.POSITIVE_INFINITY;
+        }
+
+        this.outerX = Math.max(1, outerX);
+        this.outerZ = shape == Shape.RECTANGLE ? Math.max(1, outerZ) : this.outerX;
+
+        // A hole as large as the area would leave nothing to sample
+        double inner = Math.max(0, innerDistance);
+        if (inner >= this.outerX) {
+            inner = 0;
+        }
+        this.innerX = inner;
+        this.innerZ = inner * this.outerZ / this.outerX;
+
+        this.clipped = border != null && (-this.outerX < clipMinX || this.outerX > clipMaxX
+                || -this.outerZ < clipMinZ || this.outerZ > clipMaxZ);
+
+        double[][] strips;
+        if (shape == Shape.CIRCLE) {
+            strips = null;
+        } else {
+            // North and south strips span the full width, west and east strips fill the sides of the hole
+            strips = new double[][] {
+                    {-this.outerX, this.outerX, -this.outerZ, -innerZ},
+                    {-this.outerX, this.outerX, innerZ, this.outerZ},
+                    {-this.outerX, -innerX, -innerZ, innerZ},
+                    {innerX, this.outerX, -innerZ, innerZ}
+            };
+        }
+
+        boolean overlaps = shape == Shape.CIRCLE ? circleOverlapsClip() : clipStrips(strips) > 0;
+        this.wholeBorder = border != null && (outerX <= 0 || !overlaps) && clipMaxX > clipMinX && clipMaxZ > clipMinZ;
+        if (wholeBorder) {
+            strips = new double[][] {{clipMinX, clipMaxX, clipMinZ, clipMaxZ}};
+        }
+
+        this.boxMinX = Math.max(-this.outerX, clipMinX);
+        this.boxMaxX = Math.min(this.outerX, clipMaxX);
+        this.boxMinZ = Math.max(-this.outerZ, clipMinZ);
+        this.boxMaxZ = Math.min(this.outerZ, clipMaxZ);
+        double farX = Math.max(Math.abs(boxMinX), Math.abs(boxMaxX));
+        double farZ = Math.max(Math.abs(boxMinZ), Math.abs(boxMaxZ));
+        this.trimmedOuter = Math.min(this.outerX, Math.sqrt(farX * farX + farZ * farZ));
+
+        if (strips == null) {
+            this.stripMinX = null;
+            this.stripMaxX = null;
+            this.stripMinZ = null;
+            this.stripMaxZ = null;
+            this.cumulativeArea = null;
+        } else {
+            this.stripMinX = new double[strips.length];
+            this.stripMaxX = new double[strips.length];
+            this.stripMinZ = new double[strips.length];
+            this.stripMaxZ = new double[strips.length];
+            this.cumulativeArea = new double[strips.length];
+            double total = 0;
+            for (int i = 0; i < strips.length; i++) {
+                stripMinX[i] = strips[i][0];
+                stripMaxX[i] = strips[i][1];
+                stripMinZ[i] = strips[i][2];
+                stripMaxZ[i] = strips[i][3];
+                total += (stripMaxX[i] - stripMinX[i]) * (stripMaxZ[i] - stripMinZ[i]);
+                cumulativeArea[i] = total;
+            }
+        }
+    }
+
+    /**
+     * Intersect the strips with the clip box in place
+     * @return The total remaining area
+     */
+    private double clipStrips(double[][] strips) {
+        double total = 0;
+        for (double[] strip : strips) {
+            strip[0] = Math.max(strip[0], clipMinX);
+            strip[1] = Math.max(strip[0], Math.min(strip[1], clipMaxX));
+            strip[2] = Math.max(strip[2], clipMinZ);
+            strip[3] = Math.max(strip[2], Math.min(strip[3], clipMaxZ));
+            total += (strip[1] - strip[0]) * (strip[3] - strip[2]);
+        }
+        return total;
+    }
+
+    /**
+     * Check if the circular annulus and the clip box share any area
+     */
+    private boolean circleOverlapsClip() {
+        if (clipMaxX < clipMinX || clipMaxZ < clipMinZ) {
+            return false;
+        }
+        // Nearest point of the box must be inside the outer circle, farthest corner outside the hole
+        double nearX = Math.max(clipMinX, Math.min(0, clipMaxX));
+        double nearZ = Math.max(clipMinZ, Math.min(0, clipMaxZ));
+        double farX = Math.max(Math.abs(clipMinX), Math.abs(clipMaxX));
+        double farZ = Math.max(Math.abs(clipMinZ), Math.abs(clipMaxZ));
+        return nearX * nearX + nearZ * nearZ <= outerX * outerX && farX * farX + farZ * farZ >= innerX * innerX;
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Check if the area had to be replaced by the whole border (unbounded or completely outside the border)
+     */
+    public boolean isWholeBorder() {
+        return wholeBorder;
+    }
+
+    /**
+     * Draw one candidate
+     * @return The block coordinates packed as (x << 32) | z, see getX/getZ
+     */
+    public long sample(Random random) {
+        double dx = 0;
+        double dz = 0;
+        if (shape == Shape.CIRCLE && !wholeBorder && !clipped) {
+            double[] point = sampleAnnulus(random, outerX);
+            dx = point[0];
+            dz = point[1];
+        } else if (shape == Shape.CIRCLE && !wholeBorder) {
+            // Both draws are uniform over a region containing the intersection, so accepted points are uniform over it
+            for (int i = 0; i < CLIP_ROUNDS; i++) {
+                dx = boxMinX + random.nextDouble() * (boxMaxX - boxMinX);
+                dz = boxMinZ + random.nextDouble() * (boxMaxZ - boxMinZ);
+                if (insideAnnulus(dx, dz)) {
+                    break;
+                }
+                double[] point = sampleAnnulus(random, trimmedOuter);
+                if (insideClip(point[0], point[1])) {
+                    dx = point[0];
+                    dz = point[1];
+                    break;
+                }
+            }
+            // Should every round miss, the last box draw is still inside the border
+        } else {
+            double target = random.nextDouble() * cumulativeArea[cumulativeArea.length - 1];
+            int strip = 0;
+            while (strip < cumulativeArea.length - 1 && target >= cumulativeArea[strip]) {
+                strip++;
+            }
+            dx = stripMinX[strip] + random.nextDouble() * (stripMaxX[strip] - stripMinX[strip]);
+            dz = stripMinZ[strip] + random.nextDouble() * (stripMaxZ[strip] - stripMinZ[strip]);
+        }
+        return pack(centerX + (int) Math.floor(dx), centerZ + (int) Math.floor(dz));
+    }
+
+    /**
+     * Draw a point uniformly from the annulus between the hole and a radius
+     * Area-uniform radius: the CDF of r in an annulus grows with r²
+     * @return The offset from the center as {dx, dz}
+     */
+    private double[] sampleAnnulus(Random random, double outer) {
+        double innerSquared = innerX * innerX;
+        double radius = Math.sqrt(random.nextDouble() * (outer * outer - innerSquared) + innerSquared);
+        double angle = random.nextDouble() * 2 * Math.PI;
+        return new double[] {Math.cos(angle) * radius, Math.sin(angle) * radius};
+    }
+
+    private boolean insideAnnulus(double dx, double dz) {
+        double distanceSquared = dx * dx + dz * dz;
+        return distanceSquared >= innerX * innerX && distanceSquared <= outerX * outerX;
+    }
+
+    /**
+     * Check if a point lies inside the sampled area (outside the hole, inside the border)
+     */
+    public boolean contains(double x, double z) {
+        double dx = x - centerX;
+        double dz = z - centerZ;
+        if (!insideClip(dx, dz)) {
+            return false;
+        }
+        if (wholeBorder) {
+            return true;
+        }
+        if (shape == Shape.CIRCLE) {
+            return insideAnnulus(dx, dz);
+        }
+        double absX = Math.abs(dx);
+        double absZ = Math.abs(dz);
+        return absX <= outerX && absZ <= outerZ && (absX >= innerX || absZ >= innerZ);
+    }
+
+    private boolean insideClip(double dx, double dz) {
+        return dx >= clipMinX && dx <= clipMaxX && dz >= clipMinZ && dz <= clipMaxZ;
+    }
+
+    public static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static int getX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int getZ(long packed) {
+        return (int) packed;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.mightyrtp.utils;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+/**
+ * Immutable, thread-safe view of a single chunk captured as a ChunkSnapshot.
+ * Safety checks run against this view on async threads without touching live world state.
+ */
+public class ChunkView {
+
+    private final World world;
+    private final ChunkSnapshot snapshot;
+    private final World.Environment environment;
+    private final int chunkX;
+    private final int chunkZ;
+    private final int minY;
+    private final int maxY;
+    private final boolean hasBiomes;
+
+    /**
+     * Must be created on the main thread (reads the world's height range and environment)
+     */
+    public ChunkView(World world, ChunkSnapshot snapshot, boolean hasBiomes) {
+        this.world = world;
+        this.snapshot = snapshot;
+        this.environment = world.getEnvironment();
+        this.chunkX = snapshot.getX();
+        this.chunkZ = snapshot.getZ();
+        this.minY = world.getMinHeight();
+        this.maxY = world.getMaxHeight() - 1;
+        this.hasBiomes = hasBiomes;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public ChunkSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public World.Environment getEnvironment() {
+        return environment;
+    }
+
+    public boolean isNether() {
+        return environment == World.Environment.NETHER;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Check if the snapshot was captured with biome data
+     */
+    public boolean hasBiomes() {
+        return hasBiomes;
+    }
+
+    /**
+     * Check if world block coordinates fall inside this chunk
+     */
+    public boolean contains(int x, int z) {
+        return (x >> 4) == chunkX && (z >> 4) == chunkZ;
+    }
+
+    /**
+     * Get the block type at world coordinates inside this chunk
+     * Positions above the build limit read as AIR, positions below the world floor as VOID_AIR
+     */
+    public Material getType(int x, int y, int z) {
+        if (y > maxY) {
+            return Material.AIR;
+        }
+        if (y < minY) {
+            return Material.VOID_AIR;
+        }
+        return snapshot.getBlockType(x & 15, y, z & 15);
+    }
+
+    /**
+     * Get the biome at world coordinates inside this chunk (requires hasBiomes())
+     */
+    public Biome getBiome(int x, int y, int z) {
+        return snapshot.getBiome(x & 15, Math.max(minY, Math.min(maxY, y)), z & 15);
+    }
+}
@@ -0,0 +1,487 @@
+package com.example.mightyrtp.utils;
+
+import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.managers.BiomeFilterManager;
+import com.example.mightyrtp.managers.LoadedChunkManager;
+import com.example.mightyrtp.managers.RejectionCacheManager;
+import com.example.mightyrtp.managers.RtpSettings;
+import com.example.mightyrtp.managers.WorldBorderManager;
+import com.example.mightyrtp.managers.WorldStatsManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single non-blocking location search.
+ * Each attempt requests a chunk, evaluates it when it arrives and requests the next candidate on failure,
+ * so no thread ever waits for a chunk to load.
+ * Up to parallelChunkLoads candidates are kept in flight at once; the first safe one wins and the rest are cancelled.
+ * Every candidate has a wall-clock budget for its chunk, and the whole search ends with a TIMEOUT result once its
+ * own deadline passes, so the worst-case latency of a request is bounded.
+ * Every chunk that arrives is harvested completely: all 256 columns are checked and the safe ones ranked, the best
+ * serve this search and the surplus is handed to the location pool for later requests.
+ * When a chunk has no safe column at all, its already loaded neighbours are tried next, spiralling outward, before
+ * the search jumps to a new random point - near-misses (beaches, forests) become hits without new chunk I/O.
+ * Attempt budget, parallel chunk loads and fast mode come from the world's observed success statistics.
+ * A batch search wants several destinations and ends once enough distinct locations are found (or with the ones it has
+ * when time or attempts run out).
+ */
+public class LocationSearch {
+
+    /**
+     * Radius and attempts used by the fast mode fallback near the center
+     */
+    private static final int FALLBACK_DISTANCE = 1000;
+    private static final int FALLBACK_ATTEMPTS = 3;
+
+    /**
+     * Candidates skipped by the rejection cache don't use up attempts; this bounds how many may be skipped per attempt
+     */
+    private static final int MAX_CACHE_SKIPS_PER_ATTEMPT = 4;
+
+    private final MightyRTP plugin;
+    private final TeleportUtils teleportUtils;
+    private final RejectionCacheManager rejectionCache;
+    private final BiomeFilterManager biomeFilter;
+    private final LoadedChunkManager loadedChunks;
+    private final WorldStatsManager worldStats;
+    private final World world;
+    private final CompletableFuture<TeleportResult> result;
+    // Captured once so a reload during the search cannot mix old and new settings
+    private final RtpSettings settings;
+
+    private final AreaSampler sampler;
+    private final AreaSampler fallbackSampler;
+    private final int maxAttempts;
+    private final int wanted;
+    // Pool generation at the start, so surplus found with settings from before a reload is dropped
+    private final int poolGeneration;
+    private final int parallelChunkLoads;
+    private final boolean fastMode;
+    private final boolean loadedChunksFirst;
+    private final long attemptTimeoutMillis;
+    private final long searchTimeoutMillis;
+    private final boolean refinementEnabled;
+    private final int refinementRadius;
+    private final int refinementMaxChunks;
+    private final SearchTrace trace;
+    private final long startNanos;
+
+    // Guarded by this
+    private final Set<CompletableFuture<ChunkView>> pending;
+    private final Set<Long> requestedChunks;
+    private int attempt;
+    private int cacheSkips;
+    private boolean inFallback;
+    private boolean loadedChunksExhausted;
+    private int successAttempts;
+    private final List<Location> found;
+
+    public LocationSearch(MightyRTP plugin, TeleportUtils teleportUtils, World world) {
+        this(plugin, teleportUtils, world, 1);
+    }
+
+    /**
+     * The time budget starts here: searches are created when they are submitted for a search slot, so time spent
+     * waiting in the queue counts toward max-search-time
+     * @param wanted Number of distinct locations to find (1 for a normal search)
+     */
+    public LocationSearch(MightyRTP plugin, TeleportUtils teleportUtils, World world, int wanted) {
+        this.plugin = plugin;
+        this.teleportUtils = teleportUtils;
+        this.rejectionCache = plugin.getRejectionCacheManager();
+        this.biomeFilter = plugin.getBiomeFilterManager();
+        this.loadedChunks = plugin.getLoadedChunkManager();
+        this.worldStats = plugin.getWorldStatsManager();
+        this.world = world;
+        this.result = new CompletableFuture<>();
+        this.pending = new HashSet<>();
+        this.requestedChunks = new HashSet<>();
+        this.wanted = Math.max(1, wanted);
+        this.found = new ArrayList<>(this.wanted);
+        this.poolGeneration = plugin.getLocationPoolManager().getGeneration();
+        this.startNanos = System.nanoTime();
+
+        this.settings = plugin.getConfigManager().getSettings();
+        int centerX = plugin.getCentersManager().getCenterX(world);
+        int centerZ = plugin.getCentersManager().getCenterZ(world);
+        int minDistance = settings.getMinDistanceFromSpawn();
+        // Clip both areas to the live world border so no chunk outside the playable area is ever requested
+        WorldBorderManager.Bounds border = plugin.getWorldBorderManager().getBounds(world);
+        this.sampler = new AreaSampler(settings.getSamplingShape(), centerX, centerZ,
+                settings.getTeleportDistance(), settings.getRectangleZDistance(), minDistance, border);
+        this.fallbackSampler = new AreaSampler(AreaSampler.Shape.CIRCLE, centerX, centerZ,
+                FALLBACK_DISTANCE, FALLBACK_DISTANCE, Math.min(minDistance, FALLBACK_DISTANCE / 2), border);
+        // Tuned per world from observed success rates (static settings while adaptation is off or warming up)
+        WorldStatsManager.Budget budget = worldStats.getBudget(world, settings);
+        this.parallelChunkLoads = budget.getParallelChunkLoads();
+        this.fastMode = budget.isFastMode();
+        this.maxAttempts = budget.getMaxAttempts();
+        this.loadedChunksFirst = settings.isLoadedChunkSamplingEnabled();
+        this.attemptTimeoutMillis = settings.getMaxSearchTimePerAttempt();
+        this.searchTimeoutMillis = settings.getMaxSearchTime();
+        this.refinementEnabled = settings.isLocalRefinementEnabled();
+        this.refinementRadius = settings.getLocalRefinementRadius();
+        this.refinementMaxChunks = settings.getLocalRefinementMaxChunks();
+        this.trace = plugin.getTraceManager().newSearch(world);
+
+        // First result wins - stop waiting for the other candidates
+        result.whenComplete((value, error) -> cancelPending());
+        result.whenComplete((value, error) -> recordOutcome(value));
+    }
+
+    /**
+     * Start the search
+     * @return A future completed with the result, on an async thread
+     */
+    public CompletableFuture<TeleportResult> start() {
+        if (result.isDone()) {
+            // Cancelled while it was waiting for a search slot
+            return result;
+        }
+        long remainingMillis = searchTimeoutMillis - getElapsedMillis();
+        if (remainingMillis <= 0) {
+            // The budget ran out while waiting for a search slot
+            onDeadline();
+            return result;
+        }
+        ScheduledFuture<?> deadline = teleportUtils.scheduleDeadline(this::onDeadline, remainingMillis);
+        result.whenComplete((value, error) -> deadline.cancel(false));
+
+        synchronized (this) {
+            launchCandidates();
+        }
+        return result;
+    }
+
+    /**
+     * End the search with a CANCELLED result, e.g. because the player left or was teleported elsewhere
+     * Completing the result cancels all chunk requests that are still pending
+     */
+    public void cancel(String reason) {
+        if (result.complete(TeleportResult.cancelled(reason)) && trace.isEnabled()) {
+            trace.note("search cancelled: " + reason);
+        }
+    }
+
+    /**
+     * End the search with a TIMEOUT result once its wall-clock budget is spent
+     * Completing the result cancels all chunk requests that are still pending
+     */
+    private void onDeadline() {
+        int attempts;
+        int inFlight;
+        synchronized (this) {
+            attempts = attempt;
+            inFlight = pending.size();
+        }
+        if (completeWithFound("search deadline reached")) {
+            return;
+        }
+        String message = "Search timed out after " + getElapsedMillis() + " ms (" + attempts + " attempts, " + inFlight + " chunk requests cancelled)";
+        if (result.complete(TeleportResult.timeout(message))) {
+            trace.fail(attempts, "search deadline reached");
+        }
+    }
+
+    /**
+     * End a batch search early with the locations found so far
+     * @return True if at least one location was found and the result was completed
+     */
+    private boolean completeWithFound(String reason) {
+        Location first;
+        int count;
+        synchronized (this) {
+            if (found.isEmpty()) {
+                return false;
+            }
+            first = found.get(0);
+            count = found.size();
+        }
+        if (result.complete(TeleportResult.success(first)) && wanted > 1 && trace.isEnabled()) {
+            trace.note(reason + ", ending batch with " + count + "/" + wanted + " locations");
+        }
+        return true;
+    }
+
+    /**
+     * Feed the outcome of a normal search into the world statistics (batches and cancelled searches say nothing
+     * about the hit rate)
+     */
+    private void recordOutcome(TeleportResult value) {
+        if (value == null || wanted > 1) {
+            return;
+        }
+        int attempts;
+        synchronized (this) {
+            attempts = successAttempts > 0 ? successAttempts : attempt + (inFallback ? maxAttempts : 0);
+        }
+        if (value.isSuccess()) {
+            worldStats.recordSuccess(world, attempts);
+        } else if (value.isFailure() || value.isTimeout()) {
+            worldStats.recordFailure(world, attempts);
+        }
+    }
+
+    /**
+     * Get every location found by a batch search (the first one is also the result location)
+     * Only complete once the result future is done
+     */
+    public synchronized List<Location> getLocations() {
+        return new ArrayList<>(found);
+    }
+
+    private long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Fill all free parallel slots with new candidates
+     * If the attempt budget is exhausted and nothing is in flight anymore, the current phase ends
+     */
+    private void launchCandidates() {
+        while (pending.size() < parallelChunkLoads && launchNextCandidate()) {
+            // Keep launching until all slots are busy or the budget is spent
+        }
+        if (pending.isEmpty() && !result.isDone()) {
+            onAttemptsExhausted();
+        }
+    }
+
+    /**
+     * Pick the next candidate and request its chunk
+     * Evaluation continues in onChunk once the chunk arrives
+     * @return false if the attempt budget is exhausted
+     */
+    private boolean launchNextCandidate() {
+        int attemptLimit = inFallback ? FALLBACK_ATTEMPTS : maxAttempts;
+        while (attempt < attemptLimit) {
+            attempt++;
+
+            int x;
+            int z;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long loadedChunk = pickLoadedChunk();
+            if (loadedChunk != LoadedChunkManager.NO_CHUNK) {
+                // Random column inside an already loaded chunk
+                x = (LoadedChunkManager.getChunkX(loadedChunk) << 4) + random.nextInt(16);
+                z = (LoadedChunkManager.getChunkZ(loadedChunk) << 4) + random.nextInt(16);
+            } else {
+                // Uniform over the area between min-distance and teleport-distance - never outside it
+                long candidate = (inFallback ? fallbackSampler : sampler).sample(random);
+                x = AreaSampler.getX(candidate);
+                z = AreaSampler.getZ(candidate);
+            }
+
+            // A chunk this search already requested was harvested completely - loading it again would only hand out
+            // the same locations twice (likely with loaded-chunk-first sampling, which draws from a small set)
+            if (requestedChunks.contains(AreaSampler.pack(x >> 4, z >> 4))) {
+                trace.skip(x, z, "chunk already requested");
+                if (cacheSkips < maxAttempts * MAX_CACHE_SKIPS_PER_ATTEMPT) {
+                    cacheSkips++;
+                    attempt--;
+                }
+                continue;
+            }
+
+            // Skip areas that already failed recently or lie in a blacklisted biome - no chunk load and no attempt used
+            if (cacheSkips < maxAttempts * MAX_CACHE_SKIPS_PER_ATTEMPT) {
+                String skipReason = rejectionCache.isRejected(world, x, z) ? "rejection cache"
+                        : biomeFilter.isExcluded(world, x, z) ? "blacklisted biome (pre-filter)" : null;
+                if (skipReason != null) {
+                    trace.skip(x, z, skipReason);
+                    worldStats.recordRejection(world, skipReason);
+                    cacheSkips++;
+                    attempt--;
+                    continue;
+                }
+            }
+
+            trace.candidate(attempt, x, z);
+            requestCandidate(x, z, attempt, false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Request the chunk of a candidate column; evaluation continues in onChunk once it arrives
+     * @param refinement True for a loaded neighbour of a chunk that had no safe column
+     */
+    private void requestCandidate(int x, int z, int candidateAttempt, boolean refinement) {
+        requestedChunks.add(AreaSampler.pack(x >> 4, z >> 4));
+        CompletableFuture<ChunkView> chunkFuture = teleportUtils.requestChunkView(world, x >> 4, z >> 4, attemptTimeoutMillis);
+        pending.add(chunkFuture);
+        chunkFuture.whenCompleteAsync((chunk, error) -> onChunk(chunkFuture, chunk, x, z, candidateAttempt, refinement), teleportUtils.getAsyncExecutor());
+    }
+
+    /**
+     * Spiral outward over the already loaded neighbours of a chunk without a safe column
+     * Neighbours count towards the parallel slots but not towards the attempt budget, since they cost no chunk I/O
+     */
+    private void refineAround(int chunkX, int chunkZ, int candidateAttempt) {
+        AreaSampler area = inFallback ? fallbackSampler : sampler;
+        int launched = 0;
+        for (int ring = 1; ring <= refinementRadius && launched < refinementMaxChunks; ring++) {
+            for (int dx = -ring; dx <= ring && launched < refinementMaxChunks; dx++) {
+                for (int dz = -ring; dz <= ring && launched < refinementMaxChunks; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) {
+                        continue; // Inner rings were already visited
+                    }
+                    int neighbourX = chunkX + dx;
+                    int neighbourZ = chunkZ + dz;
+                    int x = (neighbourX << 4) + 8;
+                    int z = (neighbourZ << 4) + 8;
+                    if (requestedChunks.contains(AreaSampler.pack(neighbourX, neighbourZ))
+                            || !loadedChunks.isLoaded(world, neighbourX, neighbourZ)
+                            || !area.contains(x, z)
+                            || rejectionCache.isRejected(world, x, z)
+                            || biomeFilter.isExcluded(world, x, z)) {
+                        continue;
+                    }
+                    requestCandidate(x, z, candidateAttempt, true);
+                    launched++;
+                }
+            }
+        }
+        if (launched > 0 && trace.isEnabled()) {
+            trace.note("chunk " + chunkX + ", " + chunkZ + " had no safe column, refining over " + launched + " loaded neighbours");
+        }
+    }
+
+    /**
+     * Pick a loaded chunk inside the teleport radius when the loaded-chunk-first strategy is enabled
+     * Chunks this search already requested, rejection-cached or biome-excluded chunks do not qualify, so once the few
+     * usable loaded chunks are used up the rest of the search samples cold chunks instead of skipping the same ones
+     * @return The packed chunk key, or NO_CHUNK to sample a cold chunk
+     */
+    private long pickLoadedChunk() {
+        if (!loadedChunksFirst || loadedChunksExhausted || inFallback) {
+            return LoadedChunkManager.NO_CHUNK;
+        }
+
+        long chunk = loadedChunks.sampleChunk(world, sampler, this::isUnusableLoadedChunk);
+        if (chunk == LoadedChunkManager.NO_CHUNK) {
+            loadedChunksExhausted = true;
+            trace.note("no loaded chunk qualifies, sampling cold chunks");
+        }
+        return chunk;
+    }
+
+    /**
+     * Check if a loaded chunk would only be skipped by launchNextCandidate (called with the lock held)
+     */
+    private boolean isUnusableLoadedChunk(long chunk) {
+        int centerX = (LoadedChunkManager.getChunkX(chunk) << 4) + 8;
+        int centerZ = (LoadedChunkManager.getChunkZ(chunk) << 4) + 8;
+        return requestedChunks.contains(chunk)
+                || rejectionCache.isRejected(world, centerX, centerZ)
+                || biomeFilter.isExcluded(world, centerX, centerZ);
+    }
+
+    /**
+     * Evaluate a candidate once its chunk snapshot has arrived (null if the chunk failed to load in time)
+     */
+    private void onChunk(CompletableFuture<ChunkView> chunkFuture, ChunkView chunk, int x, int z, int candidateAttempt, boolean refinement) {
+        boolean nearMiss = false;
+        // Evaluate outside the lock so parallel candidates are checked concurrently
+        if (result.isDone()) {
+            // Another candidate already won
+        } else if (chunk == null) {
+            trace.reject(x, SurfaceResolver.NO_SURFACE, z, "chunk did not load within the attempt budget", null);
+            worldStats.recordRejection(world, "chunk timeout");
+        } else {
+            // The chunk load is paid for - use every column of it, not just the candidate
+            List<Location> ranked = teleportUtils.harvestChunk(chunk, x, z, fastMode, settings, trace);
+            if (!ranked.isEmpty()) {
+                accept(ranked, candidateAttempt);
+            } else {
+                worldStats.recordRejection(world, "no safe column");
+                // Refinement chunks don't spawn further refinement, so the search cannot crawl across the map
+                nearMiss = refinementEnabled && !refinement;
+            }
+        }
+
+        synchronized (this) {
+            pending.remove(chunkFuture);
+            if (!result.isDone()) {
+                if (nearMiss) {
+                    refineAround(x >> 4, z >> 4, candidateAttempt);
+                }
+                launchCandidates();
+            }
+        }
+    }
+
+    /**
+     * Take the ranked safe columns of a chunk: the best ones serve this search, the surplus goes to the location pool
+     */
+    private void accept(List<Location> ranked, int candidateAttempt) {
+        List<Location> surplus;
+        boolean complete;
+        synchronized (this) {
+            int take = Math.max(0, Math.min(wanted - found.size(), ranked.size()));
+            found.addAll(ranked.subList(0, take));
+            surplus = new ArrayList<>(ranked.subList(take, ranked.size()));
+            complete = found.size() >= wanted;
+            if (take > 0 && successAttempts == 0) {
+                successAttempts = candidateAttempt + (inFallback ? maxAttempts : 0);
+            }
+        }
+
+        if (trace.isEnabled()) {
+            Location best = ranked.get(0);
+            String kind = wanted > 1 ? "batch" : inFallback ? "fast fallback" : fastMode ? "fast" : "safe";
+            trace.accept(candidateAttempt, best.getBlockX(), best.getBlockY() - 1, best.getBlockZ(), kind + ", " + ranked.size() + " safe cells");
+        }
+        if (!surplus.isEmpty()) {
+            plugin.getLocationPoolManager().offerHarvested(surplus, poolGeneration);
+        }
+        if (complete) {
+            completeWithFound("found all locations");
+        }
+    }
+
+    private void onAttemptsExhausted() {
+        if (completeWithFound("attempts exhausted")) {
+            return;
+        }
+        if (!inFallback) {
+            // Fast fallback: try spawn area with minimal checks
+            if (fastMode) {
+                trace.note("attempts exhausted, trying fast fallback near the center");
+                inFallback = true;
+                attempt = 0;
+                launchCandidates();
+                return;
+            }
+        }
+
+        if (result.complete(TeleportResult.failure("Could not find a safe location after " + maxAttempts + " attempts (" + getElapsedMillis() + " ms)"))) {
+            trace.fail(attempt, "no safe location found");
+        }
+    }
+
+    /**
+     * Cancel chunk requests that are still in flight
+     * A cancelled request skips its main thread snapshot capture when the chunk arrives
+     */
+    private void cancelPending() {
+        List<CompletableFuture<ChunkView>> toCancel;
+        synchronized (this) {
+            toCancel = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (CompletableFuture<ChunkView> chunkFuture : toCancel) {
+            chunkFuture.cancel(false);
+        }
+    }
+}
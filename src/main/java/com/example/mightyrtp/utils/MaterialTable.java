@@ -0,0 +1,115 @@
+package com.example.mightyrtp.utils;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Material classification compiled into ordinal-indexed lookup tables.
+ * Safety checks run hundreds of times per RTP, so every lookup is a single array read with no allocation.
+ * Intrinsic properties (air, leaves, solid, Nether-dangerous) are computed once; the configured unsafe blocks
+ * are compiled into an immutable instance on every config load/reload.
+ */
+public final class MaterialTable {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private static final boolean[] AIR = new boolean[MATERIALS.length];
+    private static final boolean[] PASSABLE = new boolean[MATERIALS.length];
+    private static final boolean[] LEAVES = new boolean[MATERIALS.length];
+    private static final boolean[] SOLID = new boolean[MATERIALS.length];
+    private static final boolean[] NETHER_DANGEROUS = new boolean[MATERIALS.length];
+
+    static {
+        for (Material material : MATERIALS) {
+            int index = material.ordinal();
+            AIR[index] = material == Material.AIR || material == Material.CAVE_AIR || material == Material.VOID_AIR;
+            // Head room for a player - void air is never accepted
+            PASSABLE[index] = material == Material.AIR || material == Material.CAVE_AIR;
+            LEAVES[index] = material.name().contains("LEAVES");
+            SOLID[index] = material.isSolid();
+            // Blocks that hurt a player standing right above them, even under the lenient Nether rules
+            NETHER_DANGEROUS[index] = material == Material.FIRE || material == Material.MAGMA_BLOCK;
+        }
+    }
+
+    private final boolean[] unsafe;
+    private final List<Material> unsafeMaterials;
+
+    private MaterialTable(boolean[] unsafe, List<Material> unsafeMaterials) {
+        this.unsafe = unsafe;
+        this.unsafeMaterials = unsafeMaterials;
+    }
+
+    /**
+     * Compile the configured unsafe block names (invalid names are logged and skipped)
+     */
+    public static MaterialTable compile(List<String> unsafeBlockNames, Logger logger) {
+        boolean[] unsafe = new boolean[MATERIALS.length];
+        List<Material> unsafeMaterials = new ArrayList<>();
+        for (String name : unsafeBlockNames) {
+            try {
+                Material material = Material.valueOf(name);
+                if (!unsafe[material.ordinal()]) {
+                    unsafe[material.ordinal()] = true;
+                    unsafeMaterials.add(material);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid material name in config: " + name);
+            }
+        }
+        return new MaterialTable(unsafe, Collections.unmodifiableList(unsafeMaterials));
+    }
+
+    /**
+     * Check if a material is in the configured unsafe blocks list
+     */
+    public boolean isUnsafe(Material material) {
+        return unsafe[material.ordinal()];
+    }
+
+    /**
+     * Get the configured unsafe blocks (immutable)
+     */
+    public List<Material> getUnsafeMaterials() {
+        return unsafeMaterials;
+    }
+
+    /**
+     * Check if a material is any kind of air (AIR, CAVE_AIR, VOID_AIR)
+     */
+    public static boolean isAir(Material material) {
+        return AIR[material.ordinal()];
+    }
+
+    /**
+     * Check if a player can occupy a block of this material (AIR, CAVE_AIR)
+     */
+    public static boolean isPassable(Material material) {
+        return PASSABLE[material.ordinal()];
+    }
+
+    /**
+     * Check if a material is a leaves block
+     */
+    public static boolean isLeaves(Material material) {
+        return LEAVES[material.ordinal()];
+    }
+
+    /**
+     * Check if a material is solid enough to stand on
+     */
+    public static boolean isSolid(Material material) {
+        return SOLID[material.ordinal()];
+    }
+
+    /**
+     * Check if a material is dangerous to stand on in the Nether (fire, magma)
+     */
+    public static boolean isNetherDangerous(Material material) {
+        return NETHER_DANGEROUS[material.ordinal()];
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mightyrtp.utils;
+
+import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.managers.InFlightSearchManager;
+import com.example.mightyrtp.managers.RtpSettings;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Collects console RTP requests per world over a short window (e.g. a crowd walking through a portal) and serves them
+ * with one batch search that harvests several safe columns per loaded chunk.
+ * Every waiting player gets a distinct location; players the batch could not serve fall back to their own search.
+ * Main thread only.
+ */
+final class SearchCoalescer {
+
+    private final MightyRTP plugin;
+    private final TeleportUtils teleportUtils;
+    private final Map<UUID, Batch> batches;
+
+    SearchCoalescer(MightyRTP plugin, TeleportUtils teleportUtils) {
+        this.plugin = plugin;
+        this.teleportUtils = teleportUtils;
+        this.batches = new HashMap<>();
+    }
+
+    /**
+     * Queue a request for the next batch of its world
+     * The callback is called on the main thread once the batch has finished
+     */
+    void submit(World world, InFlightSearchManager.Entry entry, Consumer<TeleportResult> callback) {
+        RtpSettings settings = plugin.getConfigManager().getSettings();
+        Batch batch = batches.get(world.getUID());
+        if (batch == null) {
+            Batch created = new Batch(world);
+            batches.put(world.getUID(), created);
+            plugin.getServer().getScheduler().runTaskLater(plugin, () -> flush(created), settings.getConsoleBatchWindowTicks());
+            batch = created;
+        }
+        batch.requests.add(new Request(entry, callback));
+        if (batch.requests.size() >= settings.getConsoleBatchMaxSize()) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Start the search for a batch (once, either when its window ends or when it is full)
+     */
+    private void flush(Batch batch) {
+        if (!batches.remove(batch.world.getUID(), batch)) {
+            return;
+        }
+
+        List<Request> live = new ArrayList<>(batch.requests.size());
+        for (Request request : batch.requests) {
+            if (request.entry.isCancelled()) {
+                request.callback.accept(TeleportResult.cancelled(request.entry.getCancelReason()));
+            } else {
+                live.add(request);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        if (live.size() == 1) {
+            Request request = live.get(0);
+            teleportUtils.startTrackedSearch(batch.world, request.entry, request.callback);
+            return;
+        }
+
+        LocationSearch search = new LocationSearch(plugin, teleportUtils, batch.world, live.size());
+        teleportUtils.startSearch(search, result -> deliver(batch.world, live, search, result));
+        if (plugin.getConfigManager().isDebugEnabled()) {
+            plugin.getLogger().info("[MightyRTP] Coalesced " + live.size() + " RTP requests for " + batch.world.getName() + " into one search");
+        }
+    }
+
+    /**
+     * Hand one distinct location to every request that is still waiting
+     */
+    private void deliver(World world, List<Request> requests, LocationSearch search, TeleportResult result) {
+        List<Location> locations = result.isSuccess() ? search.getLocations() : Collections.<Location>emptyList();
+        Iterator<Location> next = locations.iterator();
+        for (Request request : requests) {
+            if (request.entry.isCancelled()) {
+                // Player left or moved on while the batch was running - the location goes to the next one
+                request.callback.accept(TeleportResult.cancelled(request.entry.getCancelReason()));
+            } else if (next.hasNext()) {
+                request.callback.accept(TeleportResult.success(next.next()));
+            } else if (result.isSuccess()) {
+                // The batch found fewer locations than requests
+                teleportUtils.startTrackedSearch(world, request.entry, request.callback);
+            } else {
+                request.callback.accept(result);
+            }
+        }
+    }
+
+    private static final class Batch {
+        private final World world;
+        private final List<Request> requests;
+
+        private Batch(World world) {
+            this.world = world;
+            this.requests = new ArrayList<>();
+        }
+    }
+
+    private static final class Request {
+        private final InFlightSearchManager.Entry entry;
+        private final Consumer<TeleportResult> callback;
+
+        private Request(InFlightSearchManager.Entry entry, Consumer<TeleportResult> callback) {
+            this.entry = entry;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.mightyrtp.utils;
+
+import com.example.mightyrtp.managers.RtpSettings;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * MightyRTP's own executor for location searches, so a burst of /rtp requests cannot flood the shared Bukkit async pool.
+ * Search steps run on a fixed number of worker threads, or on Java 21+ when enabled on a new virtual thread each (virtual
+ * threads are cheap to create and must not be pooled; the admission limit below bounds the work either way).
+ * Whole searches are admitted up to a concurrency limit; further searches wait in a bounded queue and are refused once
+ * that queue is full, which the caller reports to the player as "busy".
+ */
+final class SearchExecutor implements Executor {
+
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    private final ExecutorService workers;
+    // Null when running on virtual threads
+    private final ThreadPoolExecutor platformWorkers;
+
+    // Guarded by this
+    private final Queue<Runnable> waiting;
+    private int running;
+    private int maxRunning;
+    private int maxWaiting;
+
+    SearchExecutor(RtpSettings settings, Logger logger) {
+        ExecutorService virtualWorkers = settings.isVirtualSearchThreads() ? createVirtualThreadExecutor() : null;
+        if (settings.isVirtualSearchThreads() && virtualWorkers == null) {
+            logger.warning("Virtual search threads need Java 21 or newer, using platform threads");
+        }
+        if (virtualWorkers != null) {
+            this.workers = virtualWorkers;
+            this.platformWorkers = null;
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = task -> {
+                Thread thread = new Thread(task, "MightyRTP Search " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            int threads = settings.getSearchThreads();
+            // Step queue is unbounded on purpose: its size is already bounded by the admitted searches times their parallel loads
+            this.platformWorkers = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), factory);
+            this.platformWorkers.allowCoreThreadTimeOut(true);
+            this.workers = platformWorkers;
+        }
+        this.waiting = new ArrayDeque<>();
+        applySettings(settings);
+    }
+
+    /**
+     * Create an executor that starts a new named virtual thread per task, through reflection so the plugin still runs
+     * on Java 8+ (Executors.newThreadPerTaskExecutor with a Thread.ofVirtual() factory)
+     * @return The executor, or null if the runtime has no (non-preview) virtual threads
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "MightyRTP Search ", 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pick up thread and queue limits from a new settings snapshot (virtual threads only change on restart)
+     */
+    synchronized void applySettings(RtpSettings settings) {
+        // Virtual threads start one thread per step, so there is no thread count to apply
+        if (platformWorkers != null) {
+            int threads = settings.getSearchThreads();
+            if (threads > platformWorkers.getMaximumPoolSize()) {
+                platformWorkers.setMaximumPoolSize(threads);
+                platformWorkers.setCorePoolSize(threads);
+            } else if (threads < platformWorkers.getMaximumPoolSize()) {
+                platformWorkers.setCorePoolSize(threads);
+                platformWorkers.setMaximumPoolSize(threads);
+            }
+        }
+        this.maxRunning = settings.getMaxConcurrentSearches();
+        this.maxWaiting = settings.getSearchQueueSize();
+    }
+
+    /**
+     * Run one search step on a worker thread
+     */
+    @Override
+    public void execute(Runnable task) {
+        workers.execute(task);
+    }
+
+    /**
+     * Start a search now if a slot is free, or queue it until one is
+     * The search must call release() exactly once when it has finished
+     * @return False if the queue is full and the search was refused
+     */
+    synchronized boolean admit(Runnable search) {
+        if (workers.isShutdown()) {
+            return false;
+        }
+        if (running < maxRunning) {
+            running++;
+            startOrRelease(search);
+            return true;
+        }
+        if (waiting.size() < maxWaiting) {
+            waiting.add(search);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Hand the slot of a finished search to the next queued one
+     */
+    synchronized void release() {
+        Runnable next = waiting.poll();
+        if (next != null) {
+            startOrRelease(next);
+        } else if (running > 0) {
+            running--;
+        }
+    }
+
+    private void startOrRelease(Runnable search) {
+        try {
+            workers.execute(search);
+        } catch (RejectedExecutionException e) {
+            // Shutting down - drop the slot so the counters stay consistent
+            running--;
+        }
+    }
+
+    /**
+     * Check if every search slot is taken and searches are already waiting
+     * Background work should back off while this is true
+     */
+    synchronized boolean isBacklogged() {
+        return running >= maxRunning && !waiting.isEmpty();
+    }
+
+    synchronized int getRunningCount() {
+        return running;
+    }
+
+    synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+    boolean isUsingVirtualThreads() {
+        return platformWorkers == null;
+    }
+
+    /**
+     * Drop queued searches and stop the worker threads (call on plugin disable)
+     */
+    synchronized void shutdown() {
+        waiting.clear();
+        workers.shutdownNow();
+    }
+}
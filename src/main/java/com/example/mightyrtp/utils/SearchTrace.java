@@ -0,0 +1,177 @@
+package com.example.mightyrtp.utils;
+
+import com.example.mightyrtp.managers.TraceManager;
+import org.bukkit.Material;
+
+/**
+ * Structured debug trace of a single location search.
+ * Events are recorded into the TraceManager ring buffer instead of being logged, so tracing never blocks the search
+ * on logger I/O. When debug is off the search gets DISABLED and every call returns after one final field read.
+ */
+public class SearchTrace {
+
+    /**
+     * No-op trace used while debug is disabled
+     */
+    public static final SearchTrace DISABLED = new SearchTrace(null, 0L, null, 0);
+
+    private final TraceManager manager;
+    private final long searchId;
+    private final String worldName;
+    private final long startNanos;
+    private final int logAttemptInterval;
+    private final boolean enabled;
+
+    public SearchTrace(TraceManager manager, long searchId, String worldName, int logAttemptInterval) {
+        this.manager = manager;
+        this.searchId = searchId;
+        this.worldName = worldName;
+        this.startNanos = System.nanoTime();
+        this.logAttemptInterval = Math.max(1, logAttemptInterval);
+        this.enabled = manager != null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * A new candidate is requested (echoed to console every debug.log-attempt-interval attempts)
+     */
+    public void candidate(int attempt, int x, int z) {
+        if (!enabled) {
+            return;
+        }
+        record(Type.CANDIDATE, attempt, x, SurfaceResolver.NO_SURFACE, z, null, null, attempt % logAttemptInterval == 0);
+    }
+
+    /**
+     * A candidate is skipped before its chunk is requested
+     * @param reason Constant description, never built by concatenation
+     */
+    public void skip(int x, int z, String reason) {
+        if (!enabled) {
+            return;
+        }
+        record(Type.SKIP, 0, x, SurfaceResolver.NO_SURFACE, z, reason, null, false);
+    }
+
+    /**
+     * A candidate column fails a check
+     * @param reason Constant description, never built by concatenation
+     * @param block The offending block, or null
+     */
+    public void reject(int x, int y, int z, String reason, Material block) {
+        if (!enabled) {
+            return;
+        }
+        record(Type.REJECT, 0, x, y, z, reason, block, false);
+    }
+
+    /**
+     * A safe column is found
+     * @param kind Description; callers building it by concatenation check isEnabled() first
+     */
+    public void accept(int attempt, int x, int y, int z, String kind) {
+        if (!enabled) {
+            return;
+        }
+        record(Type.ACCEPT, attempt, x, y, z, kind, null, true);
+    }
+
+    /**
+     * Search-level note such as a phase change
+     * @param reason Description; callers building it by concatenation check isEnabled() first
+     */
+    public void note(String reason) {
+        if (!enabled) {
+            return;
+        }
+        record(Type.NOTE, 0, 0, SurfaceResolver.NO_SURFACE, 0, reason, null, false);
+    }
+
+    /**
+     * The search ended without a location
+     */
+    public void fail(int attempts, String reason) {
+        if (!enabled) {
+            return;
+        }
+        record(Type.FAIL, attempts, 0, SurfaceResolver.NO_SURFACE, 0, reason, null, true);
+    }
+
+    private void record(Type type, int attempt, int x, int y, int z, String reason, Material block, boolean echo) {
+        long elapsedMicros = (System.nanoTime() - startNanos) / 1000L;
+        manager.record(new Event(System.currentTimeMillis(), searchId, worldName, type, attempt, x, y, z, reason, block, elapsedMicros), echo);
+    }
+
+    public enum Type {
+        CANDIDATE, SKIP, REJECT, ACCEPT, NOTE, FAIL
+    }
+
+    /**
+     * One immutable trace event; only formatted when dumped or echoed
+     */
+    public static final class Event {
+        private final long timestamp;
+        private final long searchId;
+        private final String worldName;
+        private final Type type;
+        private final int attempt;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final String reason;
+        private final Material block;
+        private final long elapsedMicros;
+
+        private Event(long timestamp, long searchId, String worldName, Type type, int attempt, int x, int y, int z,
+                      String reason, Material block, long elapsedMicros) {
+            this.timestamp = timestamp;
+            this.searchId = searchId;
+            this.worldName = worldName;
+            this.type = type;
+            this.attempt = attempt;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.reason = reason;
+            this.block = block;
+            this.elapsedMicros = elapsedMicros;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Format as a single log line (without timestamp)
+         */
+        public String format() {
+            StringBuilder line = new StringBuilder(96);
+            line.append("search #").append(searchId).append(' ').append(worldName)
+                    .append(" +").append(elapsedMicros / 1000.0).append("ms ").append(type);
+            if (attempt > 0) {
+                line.append(" attempt=").append(attempt);
+            }
+            if (type != Type.NOTE && type != Type.FAIL) {
+                line.append(" x=").append(x);
+                if (y != SurfaceResolver.NO_SURFACE) {
+                    line.append(" y=").append(y);
+                }
+                line.append(" z=").append(z);
+            }
+            if (reason != null) {
+                line.append(" - ").append(reason);
+            }
+            if (block != null) {
+                line.append(" (").append(block).append(')');
+            }
+            return line.toString();
+        }
+    }
+}
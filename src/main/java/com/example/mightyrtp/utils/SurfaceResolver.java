@@ -0,0 +1,66 @@
+package com.example.mightyrtp.utils;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+import java.util.function.IntFunction;
+
+/**
+ * Resolves the surface Y of a column from a chunk snapshot's heightmap instead of scanning block by block.
+ * Each lookup costs one heightmap read plus a short validation window around it.
+ */
+public class SurfaceResolver {
+
+    /**
+     * Returned when a column has no standable surface (e.g. End void)
+     */
+    public static final int NO_SURFACE = Integer.MIN_VALUE;
+
+    /**
+     * Maximum number of blocks checked above/below the heightmap value to confirm the surface
+     * Covers stale heightmaps and snapshot heightmaps that ignore plants (MOTION_BLOCKING)
+     */
+    private static final int VALIDATION_WINDOW = 4;
+
+    /**
+     * Resolve the highest non-air block of a column using a captured chunk snapshot
+     * The snapshot must have been taken with its heightmap included
+     * @param localX X coordinate inside the chunk (0-15)
+     * @param localZ Z coordinate inside the chunk (0-15)
+     * Returns NO_SURFACE if the column is empty
+     */
+    public int resolveSurfaceY(ChunkSnapshot snapshot, int minY, int maxY, int localX, int localZ) {
+        int heightmapY = snapshot.getHighestBlockYAt(localX, localZ);
+        return validate(heightmapY, minY, maxY, y -> snapshot.getBlockType(localX, y, localZ));
+    }
+
+    /**
+     * Settle a heightmap value onto the actual highest non-air block
+     * Steps down over air (heightmap points at the first free block or is stale),
+     * then up over non-air blocks the heightmap type does not track (grass, flowers, snow layers)
+     */
+    private int validate(int heightmapY, int minY, int maxY, IntFunction<Material> typeAt) {
+        if (heightmapY < minY) {
+            return NO_SURFACE;
+        }
+
+        int y = Math.min(heightmapY, maxY);
+        int lowest = Math.max(minY, y - VALIDATION_WINDOW);
+        while (y >= lowest && isAir(typeAt.apply(y))) {
+            y--;
+        }
+        if (y < lowest) {
+            return NO_SURFACE;
+        }
+
+        int highest = Math.min(maxY, y + VALIDATION_WINDOW);
+        while (y < highest && !isAir(typeAt.apply(y + 1))) {
+            y++;
+        }
+        return y;
+    }
+
+    private boolean isAir(Material material) {
+        return MaterialTable.isAir(material);
+    }
+}
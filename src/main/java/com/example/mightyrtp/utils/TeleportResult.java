@@ -9,7 +9,9 @@ public class TeleportResult {
     public enum Status {
         SUCCESS,
         FAILURE,
-        TIMEOUT
+        TIMEOUT,
+        BUSY,
+        CANCELLED
     }
     
     private final Status status;
@@ -34,6 +36,14 @@ public class TeleportResult {
         return new TeleportResult(Status.TIMEOUT, null, message);
     }
     
+    public static TeleportResult busy(String message) {
+        return new TeleportResult(Status.BUSY, null, message);
+    }
+    
+    public static TeleportResult cancelled(String message) {
+        return new TeleportResult(Status.CANCELLED, null, message);
+    }
+    
     public boolean isSuccess() {
         return status == Status.SUCCESS;
     }
@@ -42,6 +52,14 @@ public class TeleportResult {
         return status == Status.TIMEOUT;
     }
     
+    public boolean isBusy() {
+        return status == Status.BUSY;
+    }
+    
+    public boolean isCancelled() {
+        return status == Status.CANCELLED;
+    }
+    
     public boolean isFailure() {
         return status == Status.FAILURE;
     }
@@ -1,36 +1,108 @@
 package com.example.mightyrtp.utils;
 
 import com.example.mightyrtp.MightyRTP;
+import com.example.mightyrtp.managers.BiomeFilterManager;
 import com.example.mightyrtp.managers.ConfigManager;
-import com.example.mightyrtp.managers.CentersManager;
+import com.example.mightyrtp.managers.InFlightSearchManager;
+import com.example.mightyrtp.managers.RtpSettings;
 import com.example.mightyrtp.managers.SpotsManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.block.Block;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.block.Biome;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 public class TeleportUtils {
     
+    /**
+     * Harvested columns are ranked per 4x4 cell, so destinations from one chunk are a few blocks apart
+     */
+    private static final int HARVEST_CELL_SIZE = 4;
+    /**
+     * Ranking penalty for each unsafe neighbour of a column (water, lava, cliffs...)
+     */
+    private static final int UNSAFE_NEIGHBOUR_PENALTY = 3;
+    
     private final MightyRTP plugin;
     private final ConfigManager configManager;
-    private final CentersManager centersManager;
     private final SpotsManager spotsManager;
-    private final Random random;
+    private final SurfaceResolver surfaceResolver;
+    // Runs tasks on the main thread, inline when already there
+    private final Executor mainThreadExecutor;
+    // Runs search steps on MightyRTP's own bounded pool (never on the shared Bukkit async pool)
+    private final SearchExecutor searchExecutor;
+    // Merges console requests that arrive together into batch searches
+    private final SearchCoalescer searchCoalescer;
+    // Wall-clock timer for search and chunk deadlines (independent of server TPS)
+    private final ScheduledThreadPoolExecutor deadlineTimer;
     
     public TeleportUtils(MightyRTP plugin) {
         this.plugin = plugin;
         this.configManager = plugin.getConfigManager();
-        this.centersManager = plugin.getCentersManager();
         this.spotsManager = plugin.getSpotsManager();
-        this.random = new Random();
+        this.surfaceResolver = new SurfaceResolver();
+        this.mainThreadExecutor = task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+            } else {
+                plugin.getServer().getScheduler().runTask(plugin, task);
+            }
+        };
+        this.searchExecutor = new SearchExecutor(configManager.getSettings(), plugin.getLogger());
+        this.searchCoalescer = new SearchCoalescer(plugin, this);
+        this.deadlineTimer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "MightyRTP Deadline Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deadlineTimer.setRemoveOnCancelPolicy(true);
+    }
+    
+    /**
+     * Stop the search threads and the deadline timer (call on plugin disable)
+     */
+    public void shutdown() {
+        searchExecutor.shutdown();
+        deadlineTimer.shutdownNow();
+    }
+    
+    /**
+     * Apply search thread and queue limits after a config reload
+     */
+    public void reloadSettings() {
+        searchExecutor.applySettings(configManager.getSettings());
+    }
+    
+    /**
+     * Check if searches are already queueing for a free slot (background work should wait)
+     */
+    public boolean isSearchBacklogged() {
+        return searchExecutor.isBacklogged();
+    }
+    
+    public int getRunningSearchCount() {
+        return searchExecutor.getRunningCount();
+    }
+    
+    public int getQueuedSearchCount() {
+        return searchExecutor.getWaitingCount();
+    }
+    
+    public boolean isUsingVirtualThreads() {
+        return searchExecutor.isUsingVirtualThreads();
     }
     
     /**
@@ -38,194 +110,394 @@ public class TeleportUtils {
      * This prevents blocking the main server thread
      */
     public void findSafeLocationAsync(World world, Location center, Player player, Consumer<TeleportResult> callback) {
-        // Run the heavy location finding on an async task
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                TeleportResult result = findSafeLocationSync(world, center);
-                
-                // Sync back to main thread to execute the callback
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        callback.accept(result);
-                    }
-                }.runTask(plugin);
+        findSafeLocationAsync(world, center, player, false, callback);
+    }
+    
+    /**
+     * Asynchronously find a safe location and call the callback when done
+     * A fresh search for a player is registered as in flight until its result is delivered, so it can be cancelled
+     * @param coalesce True for console requests, which may be merged with others for the same world into a batch search
+     */
+    public void findSafeLocationAsync(World world, Location center, Player player, boolean coalesce, Consumer<TeleportResult> callback) {
+        RtpSettings settings = configManager.getSettings();
+        
+        // Serve from the pre-computed pool when possible (one chunk request instead of a search)
+        if (world != null && !settings.isCustomTeleportMode()) {
+            Location pooled = plugin.getLocationPoolManager().poll(world);
+            if (pooled != null) {
+                servePooled(world, pooled, settings, callback, () -> searchAsync(world, player, coalesce, callback));
+                return;
             }
-        }.runTaskAsynchronously(plugin);
+        }
+        
+        searchAsync(world, player, coalesce, callback);
+    }
+    
+    /**
+     * Re-check a pooled location in a fresh snapshot of its chunk before handing it out, since the world may have
+     * changed since it was harvested; stale entries are dropped and the next pooled location is tried
+     * Requesting the chunk also means it is loaded when the caller teleports, so the teleport never loads it synchronously
+     * @param fallback Run on the main thread once the pool has no valid location left
+     */
+    private void servePooled(World world, Location pooled, RtpSettings settings, Consumer<TeleportResult> callback, Runnable fallback) {
+        int x = pooled.getBlockX();
+        int z = pooled.getBlockZ();
+        boolean fastMode = plugin.getWorldStatsManager().getBudget(world, settings).isFastMode();
+        requestChunkView(world, x >> 4, z >> 4, settings.getMaxSearchTimePerAttempt()).whenCompleteAsync((chunk, error) -> {
+            if (error == null && checkColumn(chunk, x, z, fastMode, settings, SearchTrace.DISABLED) == pooled.getBlockY() - 1) {
+                if (settings.isDebugEnabled()) {
+                    plugin.getLogger().info("[MightyRTP] Using pooled location at " + x + ", " + pooled.getBlockY() + ", " + z);
+                }
+                callback.accept(TeleportResult.success(pooled));
+                return;
+            }
+            if (settings.isDebugEnabled()) {
+                plugin.getLogger().info("[MightyRTP] Dropped stale pooled location at " + x + ", " + pooled.getBlockY() + ", " + z);
+            }
+            Location next = plugin.getLocationPoolManager().poll(world);
+            if (next != null) {
+                servePooled(world, next, settings, callback, fallback);
+            } else {
+                fallback.run();
+            }
+        }, mainThreadExecutor);
+    }
+    
+    /**
+     * Start a fresh search; player searches are registered as in flight until their result is delivered
+     */
+    private void searchAsync(World world, Player player, boolean coalesce, Consumer<TeleportResult> callback) {
+        RtpSettings settings = configManager.getSettings();
+        if (player == null || world == null || settings.isCustomTeleportMode()) {
+            findFreshLocationAsync(world, callback);
+            return;
+        }
+        
+        InFlightSearchManager inFlight = plugin.getInFlightSearchManager();
+        InFlightSearchManager.Entry entry = inFlight.register(player, world);
+        Consumer<TeleportResult> delivery = result -> {
+            // Deregister before the callback teleports, so our own teleport is not taken for an external one
+            inFlight.finish(entry);
+            callback.accept(result);
+        };
+        if (coalesce && settings.isConsoleBatchingEnabled()) {
+            searchCoalescer.submit(world, entry, delivery);
+        } else {
+            startTrackedSearch(world, entry, delivery);
+        }
     }
     
     /**
-     * Synchronous version of findSafeLocation (runs on async thread)
-     * This is the heavy computation that was previously blocking the main thread
+     * Start a search for a registered player so cancelling the in-flight entry also cancels the search
      */
-    private TeleportResult findSafeLocationSync(World world, Location center) {
+    void startTrackedSearch(World world, InFlightSearchManager.Entry entry, Consumer<TeleportResult> callback) {
+        LocationSearch search = startSearch(world, callback);
+        if (search != null) {
+            entry.attach(search);
+        }
+    }
+    
+    /**
+     * Asynchronously run a full location search, bypassing the location pool
+     * The callback is always executed on the main thread
+     */
+    public void findFreshLocationAsync(World world, Consumer<TeleportResult> callback) {
         if (world == null) {
-            return TeleportResult.failure("World is null");
+            callback.accept(TeleportResult.failure("World is null"));
+            return;
         }
 
         // Check if custom teleport mode is enabled
         if (configManager.isCustomTeleportMode()) {
-            Location customSpot = spotsManager.getRandomSpot(world);
-            if (customSpot != null) {
-                if (configManager.isDebugEnabled()) {
-                    plugin.getLogger().info("[MightyRTP] Using custom teleport spot at " + customSpot.getBlockX() + ", " + customSpot.getBlockY() + ", " + customSpot.getBlockZ());
-                }
-                return TeleportResult.success(customSpot);
-            } else {
-                // No custom spots available, return failure
-                return TeleportResult.failure("No custom teleport spots available for world: " + world.getName() + ". Use /rtp-set to add spots.");
-            }
+            callback.accept(findCustomSpot(world));
+            return;
         }
-
-        int maxAttempts = configManager.getMaxAttempts();
-        int teleportDistance = configManager.getTeleportDistance();
-        int minDistanceFromSpawn = configManager.getMinDistanceFromSpawn();
-        boolean debugEnabled = configManager.isDebugEnabled();
-        int debugLogInterval = configManager.getDebugLogAttemptInterval();
-
-        // Get center from CentersManager (defaults to 0,0 if not set)
-        int centerX = centersManager.getCenterX(world);
-        int centerZ = centersManager.getCenterZ(world);
-
-        // Fast mode: extremely aggressive for console commands
-        int finalMaxAttempts = maxAttempts;
         
-        if (configManager.isFastModeEnabled()) {
-            finalMaxAttempts = Math.min(finalMaxAttempts, configManager.getFastModeMaxAttempts());
+        startSearch(world, callback);
+    }
+    
+    /**
+     * Start a non-blocking search on our own executor; the callback is synced back to the main thread
+     * @return The search, or null if it was refused because too many searches are running (the callback got BUSY)
+     */
+    private LocationSearch startSearch(World world, Consumer<TeleportResult> callback) {
+        LocationSearch search = new LocationSearch(plugin, this, world);
+        return startSearch(search, callback) ? search : null;
+    }
+    
+    /**
+     * Start an already created search on our own executor; the callback is synced back to the main thread
+     * @return False if it was refused because too many searches are running (the callback got BUSY)
+     */
+    boolean startSearch(LocationSearch search, Consumer<TeleportResult> callback) {
+        boolean admitted = searchExecutor.admit(() -> {
+            CompletableFuture<TeleportResult> result;
+            try {
+                result = search.start();
+            } catch (RuntimeException e) {
+                result = new CompletableFuture<>();
+                result.completeExceptionally(e);
+            }
+            result.whenComplete((value, error) -> searchExecutor.release())
+                    .handle((value, error) -> error != null ? TeleportResult.failure("Search failed: " + error.getMessage()) : value)
+                    .thenAcceptAsync(callback, mainThreadExecutor);
+        });
+        if (!admitted) {
+            // Backpressure: refuse instead of piling up searches
+            callback.accept(TeleportResult.busy("Too many location searches in progress"));
         }
-
-        // Fast strategy: try to find ANY valid location with minimal checks
-        for (int attempt = 1; attempt <= finalMaxAttempts; attempt++) {
-            // Generate random coordinates within the teleport distance
-            double angle = Math.random() * 2 * Math.PI;
-            double distance = Math.random() * teleportDistance;
-            
-            int x = centerX + (int) (Math.cos(angle) * distance);
-            int z = centerZ + (int) (Math.sin(angle) * distance);
-
-            // Check minimum distance from center
-            double distanceFromCenter = Math.sqrt((x - centerX) * (x - centerX) + (z - centerZ) * (z - centerZ));
-            if (distanceFromCenter < minDistanceFromSpawn) {
-                continue;
+        return admitted;
+    }
+    
+    /**
+     * Pick one of the pre-set custom teleport spots for a world
+     */
+    private TeleportResult findCustomSpot(World world) {
+        Location customSpot = spotsManager.getRandomSpot(world);
+        if (customSpot != null) {
+            if (configManager.isDebugEnabled()) {
+                plugin.getLogger().info("[MightyRTP] Using custom teleport spot at " + customSpot.getBlockX() + ", " + customSpot.getBlockY() + ", " + customSpot.getBlockZ());
             }
-
-            // Fast mode: skip chunk loading entirely, just try to find a location
-            if (configManager.isFastModeEnabled()) {
-                // Try to find the highest block without loading chunks
-                int highestY = findHighestSolidBlockFast(world, x, z);
-                if (highestY != -1) {
-                    // Fast mode: minimal safety checks
-                    if (isLocationSafeFast(world, x, highestY, z)) {
-                        if (debugEnabled) {
-                            plugin.getLogger().info("[MightyRTP] Found fast location at x=" + x + ", z=" + z + ", y=" + highestY + " after " + attempt + " attempts");
+            return TeleportResult.success(customSpot);
+        } else {
+            // No custom spots available, return failure
+            return TeleportResult.failure("No custom teleport spots available for world: " + world.getName() + ". Use /rtp-set to add spots.");
+        }
+    }
+    
+    /**
+     * Legacy synchronous method for backward compatibility
+     * Blocks the calling thread until the search completes, so it refuses to run on the main thread
+     * @deprecated Use findSafeLocationAsync instead to avoid blocking the main thread
+     */
+    @Deprecated
+    public TeleportResult findSafeLocation(World world, Location center) {
+        if (world == null) {
+            return TeleportResult.failure("World is null");
+        }
+        if (configManager.isCustomTeleportMode()) {
+            return findCustomSpot(world);
+        }
+        if (Bukkit.isPrimaryThread()) {
+            // Chunks are delivered on the main thread - waiting for them here would deadlock
+            return TeleportResult.failure("findSafeLocation cannot be called from the main thread, use findSafeLocationAsync");
+        }
+        return new LocationSearch(plugin, this, world).start().join();
+    }
+    
+    /**
+     * Request a chunk (loading or generating it without blocking) and capture it as an immutable snapshot
+     * The snapshot is always taken on the main thread, so callers never touch live world state
+     * The returned future fails with a TimeoutException if the chunk does not arrive within timeoutMillis
+     */
+    CompletableFuture<ChunkView> requestChunkView(World world, int chunkX, int chunkZ, long timeoutMillis) {
+        CompletableFuture<ChunkView> view = world.getChunkAtAsync(chunkX, chunkZ, true)
+                .thenApplyAsync(this::captureChunkView, mainThreadExecutor);
+        
+        // Stop waiting for slow chunks (the load itself finishes in the background)
+        ScheduledFuture<?> timeout = scheduleDeadline(
+                () -> view.completeExceptionally(new TimeoutException("Chunk " + chunkX + ", " + chunkZ + " did not load within " + timeoutMillis + " ms")),
+                timeoutMillis);
+        view.whenComplete((chunk, error) -> timeout.cancel(false));
+        return view;
+    }
+    
+    /**
+     * Run a task on the deadline timer after a wall-clock delay
+     * The task must be short and must not touch the world
+     */
+    ScheduledFuture<?> scheduleDeadline(Runnable task, long delayMillis) {
+        return deadlineTimer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Capture a loaded chunk as a ChunkView (main thread only)
+     */
+    private ChunkView captureChunkView(Chunk chunk) {
+        // Biomes are only copied when the biome filter needs them
+        boolean includeBiome = plugin.getBiomeFilterManager().isActive();
+        return new ChunkView(chunk.getWorld(), chunk.getChunkSnapshot(true, includeBiome, false), includeBiome);
+    }
+    
+    /**
+     * Evaluate all 256 columns of a captured chunk and rank the safe ones
+     * The candidate column is traced like a normal evaluation; the chunk is only recorded as rejected (and its biome
+     * taught to the biome filter) if no column is safe
+     * Columns are ranked by how flat and safe their surroundings are, keeping the best column of each 4x4 cell
+     * @return Safe destinations, best first (empty if the chunk has none)
+     */
+    List<Location> harvestChunk(ChunkView chunk, int x, int z, boolean fastMode, RtpSettings settings, SearchTrace trace) {
+        int baseX = x & ~15;
+        int baseZ = z & ~15;
+        int[] surface = new int[256];
+        boolean anySafe = false;
+        for (int index = 0; index < 256; index++) {
+            int columnX = baseX + (index & 15);
+            int columnZ = baseZ + (index >> 4);
+            boolean candidate = columnX == x && columnZ == z;
+            // Only the candidate column is traced; the rest would flood the trace
+            surface[index] = checkColumn(chunk, columnX, columnZ, fastMode, settings, candidate ? trace : SearchTrace.DISABLED);
+            anySafe |= surface[index] != SurfaceResolver.NO_SURFACE;
+        }
+        if (!anySafe) {
+            // Remember the rejection so later searches skip this area without loading it
+            plugin.getRejectionCacheManager().recordRejection(chunk.getWorld(), x, z);
+            recordDominantBiome(chunk, baseX, baseZ);
+            return Collections.emptyList();
+        }
+        
+        // Best column per cell, packed as (score << 8) | index so sorting ranks them
+        List<Long> ranked = new ArrayList<>();
+        for (int cellZ = 0; cellZ < 16; cellZ += HARVEST_CELL_SIZE) {
+            for (int cellX = 0; cellX < 16; cellX += HARVEST_CELL_SIZE) {
+                long best = Long.MAX_VALUE;
+                for (int dz = 0; dz < HARVEST_CELL_SIZE; dz++) {
+                    for (int dx = 0; dx < HARVEST_CELL_SIZE; dx++) {
+                        int index = ((cellZ + dz) << 4) | (cellX + dx);
+                        if (surface[index] != SurfaceResolver.NO_SURFACE) {
+                            best = Math.min(best, ((long) scoreColumn(surface, index) << 8) | index);
                         }
-                        int adjustedY = highestY + 1;
-                        Location location = new Location(world, x, adjustedY, z);
-                        return TeleportResult.success(location);
                     }
                 }
-                continue;
-            }
-
-            // Normal mode: full chunk loading and safety checks
-            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
-                try {
-                    CompletableFuture<org.bukkit.Chunk> chunkFuture = world.getChunkAtAsync(x >> 4, z >> 4, true);
-                    org.bukkit.Chunk chunk = chunkFuture.get(1, TimeUnit.SECONDS);
-                    
-                    if (chunk == null || !chunk.isLoaded()) {
-                        continue;
-                    }
-                } catch (Exception e) {
-                    continue;
-                }
-            }
-
-            // Find the highest solid block at this X,Z coordinate
-            int highestY = findHighestSolidBlockSmart(world, x, z);
-            if (highestY == -1) {
-                continue;
-            }
-
-            if (isLocationSafe(world, x, highestY, z, configManager.getUnsafeBlocks())) {
-                if (debugEnabled) {
-                    plugin.getLogger().info("[MightyRTP] Found safe location at x=" + x + ", z=" + z + ", y=" + highestY + " after " + attempt + " attempts");
+                if (best != Long.MAX_VALUE) {
+                    ranked.add(best);
                 }
-                int adjustedY = highestY + 1;
-                Location location = new Location(world, x, adjustedY, z);
-                return TeleportResult.success(location);
             }
         }
-
-        if (debugEnabled) {
-            plugin.getLogger().info("[MightyRTP] Failed to find a safe location after " + finalMaxAttempts + " attempts in world: " + world.getName());
+        Collections.sort(ranked);
+        
+        List<Location> locations = new ArrayList<>(ranked.size());
+        for (long packed : ranked) {
+            int index = (int) (packed & 0xFF);
+            locations.add(new Location(chunk.getWorld(), baseX + (index & 15), surface[index] + 1, baseZ + (index >> 4)));
+        }
+        return locations;
+    }
+    
+    /**
+     * Teach the biome filter the most common biome of a chunk that yielded no safe column
+     * Samples the center of every 4x4 biome cell at sea level, so a single column in another biome never decides for
+     * the whole chunk
+     */
+    private void recordDominantBiome(ChunkView chunk, int baseX, int baseZ) {
+        BiomeFilterManager biomeFilter = plugin.getBiomeFilterManager();
+        if (!biomeFilter.isActive() || !chunk.hasBiomes()) {
+            return;
         }
         
-        // Fast fallback: try spawn area with minimal checks
-        if (configManager.isFastModeEnabled()) {
-            for (int attempt = 1; attempt <= 3; attempt++) {
-                // Try closer to spawn for fast mode
-                double angle = Math.random() * 2 * Math.PI;
-                double distance = Math.random() * 1000; // Much smaller radius
-                
-                int x = centerX + (int) (Math.cos(angle) * distance);
-                int z = centerZ + (int) (Math.sin(angle) * distance);
-
-                double distanceFromCenter = Math.sqrt((x - centerX) * (x - centerX) + (z - centerZ) * (z - centerZ));
-                if (distanceFromCenter < minDistanceFromSpawn) {
+        int seaLevel = chunk.getWorld().getSeaLevel();
+        Biome[] biomes = Biome.values();
+        int[] counts = new int[biomes.length];
+        Biome dominant = null;
+        for (int offsetZ = 2; offsetZ < 16; offsetZ += 4) {
+            for (int offsetX = 2; offsetX < 16; offsetX += 4) {
+                Biome biome = chunk.getBiome(baseX + offsetX, seaLevel, baseZ + offsetZ);
+                if (biome == null) {
                     continue;
                 }
-
-                int highestY = findHighestSolidBlockFast(world, x, z);
-                if (highestY != -1 && isLocationSafeFast(world, x, highestY, z)) {
-                    if (debugEnabled) {
-                        plugin.getLogger().info("[MightyRTP] Found fast fallback location at x=" + x + ", z=" + z + ", y=" + highestY);
-                    }
-                    int adjustedY = highestY + 1;
-                    Location location = new Location(world, x, adjustedY, z);
-                    return TeleportResult.success(location);
+                int count = ++counts[biome.ordinal()];
+                if (dominant == null || count > counts[dominant.ordinal()]) {
+                    dominant = biome;
                 }
             }
         }
+        if (dominant != null) {
+            biomeFilter.recordBiome(chunk.getWorld(), chunk.getChunkX(), chunk.getChunkZ(), dominant);
+        }
+    }
+    
+    /**
+     * Score a safe column by the height differences to its neighbours inside the chunk (lower is better)
+     */
+    private static int scoreColumn(int[] surface, int index) {
+        int columnX = index & 15;
+        int columnZ = index >> 4;
+        int score = 0;
+        score += neighbourScore(surface, index, columnX > 0 ? index - 1 : -1);
+        score += neighbourScore(surface, index, columnX < 15 ? index + 1 : -1);
+        score += neighbourScore(surface, index, columnZ > 0 ? index - 16 : -1);
+        score += neighbourScore(surface, index, columnZ < 15 ? index + 16 : -1);
+        return score;
+    }
+    
+    private static int neighbourScore(int[] surface, int index, int neighbour) {
+        if (neighbour < 0) {
+            return 0; // Outside the chunk - unknown, neutral
+        }
+        if (surface[neighbour] == SurfaceResolver.NO_SURFACE) {
+            return UNSAFE_NEIGHBOUR_PENALTY;
+        }
+        return Math.abs(surface[index] - surface[neighbour]);
+    }
+    
+    /**
+     * Check a single column of a captured chunk against one settings snapshot (the rejection cache is not touched)
+     * The reason for a rejection is recorded in the search trace
+     */
+    private int checkColumn(ChunkView chunk, int x, int z, boolean fastMode, RtpSettings settings, SearchTrace trace) {
+        // Find the highest solid block at this X,Z coordinate
+        int highestY = findHighestSolidBlock(chunk, x, z);
+        boolean safe;
+        if (highestY == SurfaceResolver.NO_SURFACE) {
+            trace.reject(x, highestY, z, chunk.isNether() ? "no Nether floor with head room" : "no surface", null);
+            safe = false;
+        } else if (fastMode) {
+            // Fast mode: minimal safety checks
+            safe = isLocationSafeFast(chunk, x, highestY, z, settings, trace);
+        } else {
+            // Normal mode: full safety checks
+            safe = isLocationSafe(chunk, x, highestY, z, settings, trace);
+        }
+        
+        if (safe && isBlacklistedBiome(chunk, x, highestY, z)) {
+            trace.reject(x, highestY, z, "blacklisted biome", null);
+            safe = false;
+        }
         
-        return TeleportResult.failure("Could not find a safe location after " + finalMaxAttempts + " attempts");
+        return safe ? highestY : SurfaceResolver.NO_SURFACE;
     }
     
     /**
-     * Legacy synchronous method for backward compatibility
-     * @deprecated Use findSafeLocationAsync instead to avoid blocking the main thread
+     * Check the snapshot biome of a column against the biome blacklist
      */
-    @Deprecated
-    public TeleportResult findSafeLocation(World world, Location center) {
-        return findSafeLocationSync(world, center);
+    private boolean isBlacklistedBiome(ChunkView chunk, int x, int y, int z) {
+        BiomeFilterManager biomeFilter = plugin.getBiomeFilterManager();
+        if (!biomeFilter.isActive() || !chunk.hasBiomes()) {
+            return false;
+        }
+        
+        return biomeFilter.isBlacklisted(chunk.getBiome(x, y, z));
+    }
+    
+    /**
+     * Executor that runs search steps on the search threads
+     */
+    Executor getAsyncExecutor() {
+        return searchExecutor;
     }
     
-    private boolean isLocationSafe(World world, int x, int y, int z, List<Material> unsafeBlocks) {
+    private boolean isLocationSafe(ChunkView chunk, int x, int y, int z, RtpSettings settings, SearchTrace trace) {
         try {
-            boolean isNether = world.getEnvironment() == World.Environment.NETHER;
+            boolean isNether = chunk.isNether();
+            MaterialTable materials = settings.getMaterialTable();
             
             // Check the block at the teleport location
-            Block block = world.getBlockAt(x, y, z);
-            Block blockAbove = world.getBlockAt(x, y + 1, z);
-            Block blockBelow = world.getBlockAt(x, y - 1, z);
+            Material block = chunk.getType(x, y, z);
+            Material blockAbove = chunk.getType(x, y + 1, z);
+            Material blockBelow = chunk.getType(x, y - 1, z);
             
             // Check if the block below is explicitly unsafe (like lava, fire, etc.)
             // For Nether: be more lenient - only check for immediately dangerous blocks below
             if (isNether) {
                 // In Nether, only reject if block below is fire or magma block (immediately dangerous)
-                if (blockBelow.getType() == Material.FIRE || blockBelow.getType() == Material.MAGMA_BLOCK) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Block below is immediately dangerous in Nether - " + blockBelow.getType() + " at y=" + (y-1));
-                    }
+                if (MaterialTable.isNetherDangerous(blockBelow)) {
+                    trace.reject(x, y, z, "block below is dangerous in Nether", blockBelow);
                     return false;
                 }
             } else {
                 // In other dimensions, use the full unsafe blocks check
-                if (unsafeBlocks.contains(blockBelow.getType())) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Block below is explicitly unsafe - " + blockBelow.getType() + " at y=" + (y-1));
-                    }
+                if (materials.isUnsafe(blockBelow)) {
+                    trace.reject(x, y, z, "block below is unsafe", blockBelow);
                     return false;
                 }
             }
@@ -233,71 +505,55 @@ public class TeleportUtils {
             // The teleport location can be a solid block (like grass, leaves, etc.) - players can stand on it
             // We just need to make sure there's enough air above for the player to fit
             
-            int safetyStrictness = configManager.getSafetyStrictness();
+            int safetyStrictness = settings.getSafetyStrictness();
             
             if (safetyStrictness <= 2) {
                 // Very strict (1-2): Only teleport to solid blocks with 2 blocks of air above
-                if (block.getType() == Material.AIR || block.getType().name().contains("LEAVES")) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Very strict mode - cannot teleport to air or leaves");
-                    }
+                if (MaterialTable.isAir(block) || MaterialTable.isLeaves(block)) {
+                    trace.reject(x, y, z, "very strict mode - cannot teleport to air or leaves", block);
                     return false;
                 }
                 
                 // Need 2 blocks of air above
-                if (blockAbove.getType() != Material.AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Very strict mode - not enough air space above");
-                    }
+                if (!MaterialTable.isPassable(blockAbove)) {
+                    trace.reject(x, y, z, "very strict mode - not enough air space above", blockAbove);
                     return false;
                 }
                 
-                if (y + 2 < world.getMaxHeight()) {
-                    Block blockAbove2 = world.getBlockAt(x, y + 2, z);
-                    if (blockAbove2.getType() != Material.AIR) {
-                        if (configManager.isDebugEnabled()) {
-                            plugin.getLogger().info("Location rejected: Very strict mode - not enough vertical space");
-                        }
+                if (y + 2 <= chunk.getMaxY()) {
+                    Material blockAbove2 = chunk.getType(x, y + 2, z);
+                    if (!MaterialTable.isPassable(blockAbove2)) {
+                        trace.reject(x, y, z, "very strict mode - not enough vertical space", blockAbove2);
                         return false;
                     }
                 }
             } else if (safetyStrictness >= 4) {
                 // Very lenient (4-5): Teleport to any solid block with 1 block of air above
-                if (block.getType() == Material.AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Very lenient mode - cannot teleport to air");
-                    }
+                if (MaterialTable.isAir(block)) {
+                    trace.reject(x, y, z, "very lenient mode - cannot teleport to air", block);
                     return false;
                 }
                 
-                if (blockAbove.getType() != Material.AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Very lenient mode - not enough air space above");
-                    }
+                if (!MaterialTable.isPassable(blockAbove)) {
+                    trace.reject(x, y, z, "very lenient mode - not enough air space above", blockAbove);
                     return false;
                 }
             } else {
                 // Normal (3): Teleport to solid blocks or leaves with 2 blocks of air above
-                if (block.getType() == Material.AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Normal mode - cannot teleport to air");
-                    }
+                if (MaterialTable.isAir(block)) {
+                    trace.reject(x, y, z, "normal mode - cannot teleport to air", block);
                     return false;
                 }
                 
-                if (blockAbove.getType() != Material.AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Location rejected: Normal mode - not enough air space above");
-                    }
+                if (!MaterialTable.isPassable(blockAbove)) {
+                    trace.reject(x, y, z, "normal mode - not enough air space above", blockAbove);
                     return false;
                 }
                 
-                if (y + 2 < world.getMaxHeight()) {
-                    Block blockAbove2 = world.getBlockAt(x, y + 2, z);
-                    if (blockAbove2.getType() != Material.AIR) {
-                        if (configManager.isDebugEnabled()) {
-                            plugin.getLogger().info("Location rejected: Normal mode - not enough vertical space");
-                        }
+                if (y + 2 <= chunk.getMaxY()) {
+                    Material blockAbove2 = chunk.getType(x, y + 2, z);
+                    if (!MaterialTable.isPassable(blockAbove2)) {
+                        trace.reject(x, y, z, "normal mode - not enough vertical space", blockAbove2);
                         return false;
                     }
                 }
@@ -307,109 +563,51 @@ public class TeleportUtils {
             
         } catch (Exception e) {
             // If any exception occurs during block checking, reject this location
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("Location rejected: Exception during safety check at x=" + x + ", z=" + z + ": " + e.getMessage());
-            }
+            trace.reject(x, y, z, "exception during safety check", null);
             return false;
         }
     }
     
     /**
-     * Find the highest solid block at the given X,Z coordinates using smart scanning
-     * Starts from reasonable heights and works down for better performance
-     * Returns -1 if no solid block is found
+     * Find the highest solid block at the given X,Z coordinates using the world heightmap
+     * One heightmap lookup plus a short validation window instead of a per-block column scan
+     * Returns SurfaceResolver.NO_SURFACE if no solid block is found
      */
-    private int findHighestSolidBlockSmart(World world, int x, int z) {
+    private int findHighestSolidBlock(ChunkView chunk, int x, int z) {
         try {
-            // Nether-specific location finding - scan from Y=32 to Y=100
-            if (world.getEnvironment() == World.Environment.NETHER) {
-                return findSuitableLocationNether(world, x, z);
+            // Nether-specific location finding - the heightmap would point at the bedrock roof
+            if (chunk.isNether()) {
+                return findSuitableLocationNether(chunk, x, z);
             }
             
-            // Get dimension-specific height limits for other dimensions
-            int maxHeight = getMaxSearchHeight(world);
-            int minHeight = getMinSearchHeight(world);
-            
-            // Start from a reasonable height and work down
-            for (int y = maxHeight; y >= minHeight; y--) {
-                Block block = world.getBlockAt(x, y, z);
-                if (block.getType() != Material.AIR && block.getType() != Material.CAVE_AIR && block.getType() != Material.VOID_AIR) {
-                    return y;
-                }
-            }
-            return -1; // No solid block found
-        } catch (Exception e) {
-            return -1; // Return -1 on any exception
-        }
-    }
-
-    /**
-     * Find the highest solid block at the given X,Z coordinates using ultra-fast mode
-     * This is a simplified version that skips chunk loading and assumes a high chance of success
-     * Returns -1 if no solid block is found
-     */
-    private int findHighestSolidBlockFast(World world, int x, int z) {
-        try {
-            // Nether-specific location finding - scan from Y=32 to Y=100
-            if (world.getEnvironment() == World.Environment.NETHER) {
-                return findSuitableLocationNether(world, x, z);
-            }
-            
-            // Get dimension-specific height limits for other dimensions
-            int maxHeight = getMaxSearchHeight(world);
-            int minHeight = getMinSearchHeight(world);
-            
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("[MightyRTP] Searching for solid block at x=" + x + ", z=" + z + " from y=" + maxHeight + " to y=" + minHeight + " in " + world.getEnvironment());
-            }
-            
-            // Start from the max height and work down
-            for (int y = maxHeight; y >= minHeight; y--) {
-                Block block = world.getBlockAt(x, y, z);
-                if (block.getType() != Material.AIR && block.getType() != Material.CAVE_AIR && block.getType() != Material.VOID_AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("[MightyRTP] Found solid block " + block.getType() + " at y=" + y);
-                    }
-                    return y;
-                }
-            }
-            
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("[MightyRTP] No solid block found at x=" + x + ", z=" + z);
-            }
-            return -1; // No solid block found
+            return surfaceResolver.resolveSurfaceY(chunk.getSnapshot(), chunk.getMinY(), chunk.getMaxY(), x & 15, z & 15);
         } catch (Exception e) {
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("[MightyRTP] Exception finding solid block at x=" + x + ", z=" + z + ": " + e.getMessage());
-            }
-            return -1; // Return -1 on any exception
+            return SurfaceResolver.NO_SURFACE;
         }
     }
 
     /**
-     * Fast safety check for locations found by findHighestSolidBlockFast
+     * Fast safety check for columns in fast mode
      * This is a simplified version that still checks for dangerous blocks but skips complex validation
      * Returns true if the location is safe, false otherwise
      */
-    private boolean isLocationSafeFast(World world, int x, int y, int z) {
+    private boolean isLocationSafeFast(ChunkView chunk, int x, int y, int z, RtpSettings settings, SearchTrace trace) {
         try {
-            int safetyLevel = configManager.getFastModeSafetyLevel();
-            boolean isNether = world.getEnvironment() == World.Environment.NETHER;
+            int safetyLevel = settings.getFastModeSafetyLevel();
+            boolean isNether = chunk.isNether();
             
             // Fast mode: still check for dangerous blocks but skip complex validation
-            Block block = world.getBlockAt(x, y, z);
-            Block blockAbove = world.getBlockAt(x, y + 1, z);
-            Block blockBelow = world.getBlockAt(x, y - 1, z);
+            Material block = chunk.getType(x, y, z);
+            Material blockAbove = chunk.getType(x, y + 1, z);
+            Material blockBelow = chunk.getType(x, y - 1, z);
             
             // Level 1: Basic unsafe blocks check using config
             if (safetyLevel >= 1) {
-                List<Material> unsafeBlocks = configManager.getUnsafeBlocks();
+                MaterialTable materials = settings.getMaterialTable();
                 
                 // Check if the teleport location is in the unsafe blocks list
-                if (unsafeBlocks.contains(block.getType())) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("[MightyRTP] Location rejected: Teleport block is unsafe - " + block.getType());
-                    }
+                if (materials.isUnsafe(block)) {
+                    trace.reject(x, y, z, "teleport block is unsafe", block);
                     return false;
                 }
                 
@@ -417,18 +615,14 @@ public class TeleportUtils {
                 // In Nether, it's common to have lava below solid blocks, which is safe to stand on
                 if (isNether) {
                     // In Nether, only reject if block below is fire or other immediately dangerous blocks
-                    if (blockBelow.getType() == Material.FIRE || blockBelow.getType() == Material.MAGMA_BLOCK) {
-                        if (configManager.isDebugEnabled()) {
-                            plugin.getLogger().info("[MightyRTP] Location rejected: Block below is immediately dangerous in Nether - " + blockBelow.getType());
-                        }
+                    if (MaterialTable.isNetherDangerous(blockBelow)) {
+                        trace.reject(x, y, z, "block below is dangerous in Nether", blockBelow);
                         return false;
                     }
                 } else {
                     // In other dimensions, use the full unsafe blocks check
-                    if (unsafeBlocks.contains(blockBelow.getType())) {
-                        if (configManager.isDebugEnabled()) {
-                            plugin.getLogger().info("[MightyRTP] Location rejected: Block below is unsafe - " + blockBelow.getType());
-                        }
+                    if (materials.isUnsafe(blockBelow)) {
+                        trace.reject(x, y, z, "block below is unsafe", blockBelow);
                         return false;
                     }
                 }
@@ -437,10 +631,8 @@ public class TeleportUtils {
             // Level 2: Standard safety (unsafe blocks + air above)
             if (safetyLevel >= 2) {
                 // Check if there's enough air above (at least 1 block)
-                if (blockAbove.getType() != Material.AIR) {
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("[MightyRTP] Location rejected: No air above - " + blockAbove.getType());
-                    }
+                if (!MaterialTable.isPassable(blockAbove)) {
+                    trace.reject(x, y, z, "no air above", blockAbove);
                     return false;
                 }
             }
@@ -451,77 +643,30 @@ public class TeleportUtils {
                 // For now, we already have the unsafe blocks check from level 1
             }
             
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("[MightyRTP] Location accepted: Safe location found at x=" + x + ", y=" + y + ", z=" + z + " (block=" + block.getType() + ", above=" + blockAbove.getType() + ", below=" + blockBelow.getType() + ")");
-            }
-            
             return true;
         } catch (Exception e) {
             // If any exception occurs during fast safety check, reject this location
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("Location rejected: Fast safety check failed at x=" + x + ", z=" + z + ": " + e.getMessage());
-            }
+            trace.reject(x, y, z, "exception during fast safety check", null);
             return false;
         }
     }
     
-    /**
-     * Get the maximum search height for a given world dimension
-     * This prevents scanning above the Nether roof and other dimension limits
-     */
-    private int getMaxSearchHeight(World world) {
-        if (world.getEnvironment() == World.Environment.NETHER) {
-            // In the Nether, don't search above Y=120 to avoid the roof
-            return 120;
-        } else if (world.getEnvironment() == World.Environment.THE_END) {
-            // In the End, search up to a reasonable height
-            return 100;
-        } else {
-            // Overworld and other dimensions - use a reasonable height
-            return 120;
-        }
-    }
-    
-    /**
-     * Get the minimum search height for a given world dimension
-     */
-    private int getMinSearchHeight(World world) {
-        if (world.getEnvironment() == World.Environment.NETHER) {
-            // In the Nether, start from Y=8 (above bedrock floor, more Nether terrain is lower)
-            return 8;
-        } else if (world.getEnvironment() == World.Environment.THE_END) {
-            // In the End, start from Y=0
-            return 0;
-        } else {
-            // Overworld and other dimensions - start from Y=32
-            return 32;
-        }
-    }
-    
     /**
      * Nether-specific location finding algorithm
-     * Scans from Y=32 to Y=100 to find suitable locations, avoiding the roof
-     * Returns the Y coordinate of a suitable location, or -1 if none found
+     * Scans from Y=32 to Y=100 (clamped to the world's real height range) to find suitable locations, avoiding the roof
+     * Returns the Y coordinate of a suitable location, or SurfaceResolver.NO_SURFACE if none found
      */
-    private int findSuitableLocationNether(World world, int x, int z) {
-        if (configManager.isDebugEnabled()) {
-            plugin.getLogger().info("[MightyRTP] Searching for suitable Nether location at x=" + x + ", z=" + z + " from y=32 to y=100");
-        }
+    private int findSuitableLocationNether(ChunkView chunk, int x, int z) {
+        int minY = Math.max(chunk.getMinY() + 1, 32);
+        int maxY = Math.min(chunk.getMaxY() - 2, 100);
         
-        // Scan from Y=32 to Y=100 (avoiding the roof at Y=127)
-        for (int y = 32; y <= 100; y++) {
-            if (isSuitableLocationNether(world, x, y, z)) {
-                if (configManager.isDebugEnabled()) {
-                    plugin.getLogger().info("[MightyRTP] Found suitable Nether location at x=" + x + ", y=" + y + ", z=" + z);
-                }
+        // Scan upwards (avoiding the roof at Y=127)
+        for (int y = minY; y <= maxY; y++) {
+            if (isSuitableLocationNether(chunk, x, y, z)) {
                 return y;
             }
         }
-        
-        if (configManager.isDebugEnabled()) {
-            plugin.getLogger().info("[MightyRTP] No suitable Nether location found at x=" + x + ", z=" + z);
-        }
-        return -1;
+        return SurfaceResolver.NO_SURFACE;
     }
     
     /**
@@ -530,28 +675,17 @@ public class TeleportUtils {
      * - Standing block is solid and not magma block
      * - Two blocks of air above for player space
      */
-    private boolean isSuitableLocationNether(World world, int x, int y, int z) {
-        try {
-            Block standingBlock = world.getBlockAt(x, y, z);
-            Block aboveBlock = world.getBlockAt(x, y + 1, z);
-            Block twoAboveBlock = world.getBlockAt(x, y + 2, z);
-            
-            // Check if standing block is solid and not magma block
-            if (!standingBlock.getType().isSolid() || standingBlock.getType() == Material.MAGMA_BLOCK) {
-                return false;
-            }
-            
-            // Check if there are two blocks of air above
-            if (aboveBlock.getType() != Material.AIR || twoAboveBlock.getType() != Material.AIR) {
-                return false;
-            }
-            
-            return true;
-        } catch (Exception e) {
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("[MightyRTP] Exception checking Nether location suitability at x=" + x + ", y=" + y + ", z=" + z + ": " + e.getMessage());
-            }
+    private boolean isSuitableLocationNether(ChunkView chunk, int x, int y, int z) {
+        Material standingBlock = chunk.getType(x, y, z);
+        Material aboveBlock = chunk.getType(x, y + 1, z);
+        Material twoAboveBlock = chunk.getType(x, y + 2, z);
+        
+        // Check if standing block is solid and not magma block
+        if (!MaterialTable.isSolid(standingBlock) || MaterialTable.isNetherDangerous(standingBlock)) {
             return false;
         }
+        
+        // Check if there are two blocks of air above
+        return MaterialTable.isPassable(aboveBlock) && MaterialTable.isPassable(twoAboveBlock);
     }
 }